@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <읽기/쓰기 분리 DataSource>
+ *    - datajpa.replica.enabled=true 이면 스프링 부트 기본 DataSource 대신
+ *      LazyConnectionDataSourceProxy(ReplicaRoutingDataSource(primary, replicas...)) 를 등록한다.
+ *    - primary  : spring.datasource.*
+ *    - replicas : datajpa.replica.replicas[n].*
+ *    - 스키마 생성(ddl-auto), 쓰기 트랜잭션은 모두 primary 에서 수행된다.
+ * */
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReplicaProperties replicaProperties) {
+        DataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        List<DataSource> replicas = replicaProperties.getReplicas().stream()
+                .map(replica -> replica(properties, replica))
+                .collect(Collectors.toList());
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+    }
+
+    private DataSource replica(DataSourceProperties properties, ReplicaProperties.Replica replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <레플리카 설정>
+ *    datajpa.replica.enabled  : true 일 때만 ReplicaDataSourceConfig 가 동작한다.
+ *    datajpa.replica.replicas : 레플리카 접속 정보 목록 (드라이버는 spring.datasource 와 같다)
+ * */
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.replica")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
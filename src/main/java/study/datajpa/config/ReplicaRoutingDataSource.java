@@ -0,0 +1,51 @@
+package study.datajpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <읽기 전용 트랜잭션 → 레플리카 라우팅>
+ *    - @Transactional(readOnly = true) 안에서 얻는 커넥션은 레플리카 중 하나로, 그 외(쓰기, 트랜잭션 없음)는 primary 로 보낸다.
+ *    - 레플리카가 여러 개면 커넥션을 얻을 때마다 돌아가면서(round-robin) 고른다.
+ *
+ *    - 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ *      JpaTransactionManager 는 트랜잭션 시작(doBegin) 시점에 커넥션을 얻는데,
+ *      readOnly 여부(TransactionSynchronizationManager)는 그 이후에 등록되기 때문이다.
+ *      → Lazy 프록시는 첫 SQL 실행 시점에 실제 커넥션을 얻으므로 readOnly 여부를 정확히 알 수 있다.
+ *    - 레플리카는 복제 지연이 있을 수 있다. 방금 쓴 데이터를 바로 읽어야 하면 readOnly 가 아닌 트랜잭션에서 읽는다.
+ * */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys.add(REPLICA + i);
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.monitor.SqlAccountingInterceptor;
+
+/**
+ * <MVC 설정>
+ *    - MemberController 요청마다 SQL 수 / 반복 SQL / DB 시간을 집계한다. (SqlAccountingInterceptor)
+ * */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final SqlAccountingInterceptor sqlAccountingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlAccountingInterceptor)
+                .addPathPatterns("/member1/**", "/member2/**", "/members/**");
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.repository.ItemIdIndex;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <2차 캐시 통계>
+ *    - http://localhost:8080/cache/stats   => 리전별 hit / miss / put / 메모리 내 건수
+ *    - hibernate.generate_statistics: true 일 때만 값이 쌓인다. (statistics 프로필)
+ *    - http://localhost:8080/cache/item-id-index  => Item id 인덱스(Bloom Filter) 의 오탐률 / 메모리 사용량
+ * */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory emf;
+    private final ItemIdIndex itemIdIndex;
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Long>> stats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hitCount", regionStats.getHitCount());
+            values.put("missCount", regionStats.getMissCount());
+            values.put("putCount", regionStats.getPutCount());
+            values.put("elementCountInMemory", regionStats.getElementCountInMemory());
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    @GetMapping("/cache/item-id-index")
+    public Map<String, Object> itemIdIndex() {
+        return itemIdIndex.stats();
+    }
+}
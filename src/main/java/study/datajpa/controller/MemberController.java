@@ -2,18 +2,29 @@ package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.CountPageRequest;
 import study.datajpa.repository.MemberRepository;
 import study.datajpa.repository.TeamRepository;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -32,6 +43,8 @@ public class MemberController {
     private final MemberRepository memberRepository;
     private final TeamRepository teamRepository;
 
+    private static final int MAX_KEYSET_SIZE = 2000;
+
     // Web 확장 - 도메인 클래스 컨버터  ==================================================
     // 도메인 클래스 컨버터 사용 전
     @GetMapping("/member1/{id}")
@@ -55,9 +68,15 @@ public class MemberController {
         Team teamA = teamRepository.save(new Team("Team_Page"));
 
         // 테스트데이터 100건 입력.
+//        for(int i=0; i<100; i++) {
+//            memberRepository.save(new Member("Page_Anakin_"+i, 10+i, teamA));
+//        }
+        // 한 건씩 save() 하지 않고 JDBC 배치로 한번에 입력.
+        List<Member> members = new ArrayList<>();
         for(int i=0; i<100; i++) {
-            memberRepository.save(new Member("Page_Anakin_"+i, 10+i, teamA));
+            members.add(new Member("Page_Anakin_"+i, 10+i, teamA));
         }
+        memberRepository.saveAllBatched(members, 100);
     }
     // Web 확장 - 도메인 클래스 컨버터  ==================================================
 
@@ -89,8 +108,11 @@ public class MemberController {
 //    }
 
     // DTO를 축약해서 코드를 보다 간결하게 만들 수 있다.
+    //    - http://localhost:8080/members?page=3&size=10&count=CONCURRENT  => count 쿼리를 컨텐츠 쿼리와 동시에 수행 (옵트인)
+    //    - http://localhost:8080/members?page=3&size=10&count=ESTIMATE    => 대략적인 전체 건수 (테이블 통계 + TTL 캐시)
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable) {  // @PageableDefault(size=5) : 기본값을 여기서 별도로 사용할 수 있다.
+    public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable,    // @PageableDefault(size=5) : 기본값을 여기서 별도로 사용할 수 있다.
+                                @RequestParam(value = "count", defaultValue = "EXACT") CountMode countMode) {
 //        Page<Member> page = memberRepository.findAll(pageable);
 //        //Page<MemberDto> map = page.map(member -> new MemberDto(member.getId(), member.getUsername(), member.getTeam().getName()));
 //        // 축약 가능
@@ -98,8 +120,47 @@ public class MemberController {
 //        // 메소드 레퍼런스로 최종 축약 가능
 //        Page<MemberDto> map = page.map(MemberDto::new);
 //        return map;
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+//        return memberRepository.findPageAll(CountPageRequest.of(pageable, countMode))
+//                .map(MemberDto::new);
+        // 엔티티를 거치지 않고 DTO 로 바로 조회 (엔티티 생성, 스냅샷, Team 지연로딩 없음)
+        return memberRepository.findMemberDtoPage(CountPageRequest.of(pageable, countMode));
+    }
+
+    /**
+     * <Web 확장 - 키셋(커서) 페이징>
+     *     - http://localhost:8080/members/keyset?size=10                  => 첫 페이지
+     *     - http://localhost:8080/members/keyset?size=10&cursor={next}    => 응답의 nextCursor 로 다음 페이지 조회
+     *     - OFFSET 과 count 쿼리가 없으므로 페이지 깊이와 상관없이 응답시간이 일정하다.
+     *     - 정렬은 username, member_id 오름차순 고정. (전체 건수 제공 안함)
+     * */
+    @GetMapping("/members/keyset")
+    public CursorPage<MemberDto> listByKeyset(@RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", defaultValue = "5") int size) {
+        // max-page-size(2000) 와 동일하게 제한
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(size, MAX_KEYSET_SIZE)));
+
+        Slice<MemberDto> slice;
+        if (cursor == null || cursor.isEmpty()) {
+            slice = memberRepository.findKeysetFirst(pageRequest);
+        } else {
+            MemberCursor after = decodeCursor(cursor);
+            slice = memberRepository.findKeysetNext(after.getUsername(), after.getId(), pageRequest);
+        }
+
+        List<MemberDto> content = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? MemberCursor.of(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPage<>(content, nextCursor, slice.hasNext());
+    }
+
+    // 클라이언트가 보낸 커서가 잘못되면 500 이 아니라 400
+    private MemberCursor decodeCursor(String cursor) {
+        try {
+            return MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
 
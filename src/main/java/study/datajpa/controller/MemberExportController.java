@@ -0,0 +1,68 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * <대용량 Export - NDJSON 스트리밍>
+ *    - http://localhost:8080/members/export   => 한 줄에 MemberDto JSON 하나씩 (application/x-ndjson)
+ *    - findAll() 처럼 List<Member> 를 한번에 만들지 않는다.
+ *    - forward-only 커서 + fetch-size 단위로 읽어서 바로 응답으로 흘려보내므로 힙 사용량이 일정하다.
+ *    - fetch-size 설정 : application.yml 의 member.export.fetch-size
+ * */
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${member.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        // StreamingResponseBody 는 별도 쓰레드에서 실행되므로, 커서가 열려 있는 동안 유지될 트랜잭션을 직접 연다.
+        StreamingResponseBody body = out -> {
+            TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+            readOnlyTx.setReadOnly(true);
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<MemberDto> stream = memberRepository.streamMemberDto(fetchSize)) {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    Iterator<MemberDto> it = stream.iterator();
+                    while (it.hasNext()) {
+                        writer.write(objectMapper.writeValueAsString(it.next()));
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.monitor.SampledSqlLogger;
+import study.datajpa.monitor.SqlEndpointSummary;
+
+import java.util.Map;
+
+/**
+ * <엔드포인트별 SQL 요약>
+ *    - http://localhost:8080/sql/stats  => 요청 수, 요청당 평균/최대 SQL 수, 평균 DB 시간, 예산 초과 횟수, 가장 많이 반복된 SQL
+ *    - http://localhost:8080/sql/log-stats  => 샘플링 SQL 로그 : 실행 / 큐에 넣은 / 버린 건수
+ * */
+@RestController
+@RequiredArgsConstructor
+public class SqlStatsController {
+
+    private final SqlEndpointSummary sqlEndpointSummary;
+    private final SampledSqlLogger sampledSqlLogger;
+
+    @GetMapping("/sql/stats")
+    public Map<String, Map<String, Object>> stats() {
+        return sqlEndpointSummary.snapshot();
+    }
+
+    @GetMapping("/sql/log-stats")
+    public Map<String, Long> logStats() {
+        return sampledSqlLogger.stats();
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * <커서 기반 페이지 응답>
+ *    - Page 와 달리 전체 건수(totalElements) 를 제공하지 않는다. (count 쿼리 없음)
+ *    - 다음 페이지가 있으면 nextCursor 를 그대로 다시 요청하면 된다.
+ * */
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * <키셋(Seek) 페이징 커서>
+ *    - 마지막으로 조회한 행의 정렬키(username)와 member_id 로 다음 페이지 시작 위치를 표현한다.
+ *    - 클라이언트에게는 Base64(URL-safe) 로 인코딩한 불투명(opaque) 토큰으로만 전달한다.
+ *    - OFFSET 을 사용하지 않으므로 페이지가 깊어져도 버리는 행이 없다.
+ *    - 잘못된 토큰은 IllegalArgumentException (컨트롤러에서 400 으로 변환)
+ * */
+@Getter
+public class MemberCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        if (username == null || id == null) {
+            throw new IllegalArgumentException("커서의 username, id 는 null 일 수 없습니다. (Member.username 은 NOT NULL)");
+        }
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(MemberDto last) {
+        return new MemberCursor(last.getUsername(), last.getId());
+    }
+
+    // "id:username" 형태로 만든 후 인코딩 (id 에는 ':' 이 없으므로 첫 번째 ':' 로 구분 가능)
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            if (idx < 1) {
+                throw new IllegalArgumentException("잘못된 커서입니다. cursor=" + token);
+            }
+            return new MemberCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (IllegalArgumentException e) {   // NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서입니다. cursor=" + token, e);
+        }
+    }
+}
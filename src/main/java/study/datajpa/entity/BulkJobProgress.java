@@ -0,0 +1,45 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * <청크 단위 벌크 작업 진행 상태>
+ *    - 청크 하나를 처리한 트랜잭션 안에서 lastId 를 함께 커밋한다.
+ *    - 작업이 중간에 끊겨도 lastId 다음부터 다시 시작하면 같은 행을 두 번 수정하지 않는다.
+ * */
+@Entity
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class BulkJobProgress {
+
+    @Id
+    private String jobName;
+    private long lastId;          // 처리(커밋) 완료한 마지막 id
+    private long maxId;           // 작업 시작 시점의 최대 id (이후 입력된 행은 대상 아님)
+    private long updatedRows;     // 누적 수정 건수
+    private boolean completed;
+    private LocalDateTime updatedDate;
+
+    public BulkJobProgress(String jobName, long lastId, long maxId) {
+        this.jobName = jobName;
+        this.lastId = lastId;
+        this.maxId = maxId;
+        this.completed = lastId >= maxId;
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    public void advance(long lastId, int rows) {
+        this.lastId = lastId;
+        this.updatedRows += rows;
+        this.completed = lastId >= maxId;
+        this.updatedDate = LocalDateTime.now();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.repository.ItemIdIndexListener;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
@@ -20,10 +21,12 @@ import java.time.LocalDateTime;
  *    - 따라서 Persistable 를 사용해서 새로운 엔티티 확인 여부를 직접 구현하게는 효과적이다.
  *       > 참고로 등록시간( @CreatedDate )을 조합해서 사용하면 이 필드로 새로운 엔티티 여부를 편리하게 확인할 수 있다.
  *         (@CreatedDate에 값이 없으면 새로운 엔티티로 판단)
+ *    - createdDate 가 이미 채워져 있어도 ItemRepository.save() 는 ItemIdIndex 로 "절대 없는 id" 를 걸러서 select 를 생략한다.
  * */
 @Entity
 //@Getter @Setter
-@EntityListeners(AuditingEntityListener.class)   // Auditing 시 필요함.
+@EntityListeners({AuditingEntityListener.class,    // Auditing 시 필요함.
+                  ItemIdIndexListener.class})      // id 존재 여부 인덱스(Bloom Filter) 유지
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Item implements Persistable<String> {
 
@@ -53,6 +56,14 @@ public class Item implements Persistable<String> {
         return createdDate == null;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -1,21 +1,37 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.repository.MemberCountCacheListener;
 
 import javax.persistence.*;
 
 @Entity @Getter @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)    // 2차 캐시 : 조회 위주 단건 조회(findById, 도메인 클래스 컨버터)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // Default 생성자 생략 옵션.
 @ToString(of={"id", "username","age"})              // Team과 같은 연관관계 필드는 빼고 출력
 @NamedQuery(                                        // 메소드 이름으로 JPA NamedQuery 호출 : 실무에서 거의 안 씀.
         name="Member.findByUsername",
         query="select m from Member m where m.username = :username")
+@Table(indexes = @Index(name = "idx_member_username_id",       // 키셋 페이징 (username, member_id) 탐색용 인덱스
+        columnList = "username, member_id"))
+@EntityListeners(MemberCountCacheListener.class)    // insert/delete 시 Page count 캐시 무효화
 //public class Member extends JpaBaseEntity{    /* 순수 JPA 방식 Auditing */
 public class Member extends BaseEntity {        /* 스프링 Data JPA 방식 Auditing */
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "member_seq_generator")   // 시퀀스를 묶음으로 할당받는다. (PooledSequenceGenerator 참고)
+    @GenericGenerator(name = "member_seq_generator",
+            strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name="member_id")
     private Long id;
+    @Column(nullable = false)           // 키셋 페이징 정렬키 (username, member_id) : null 이면 다음 페이지 조건(username > ?)에서 빠진다.
     private String username;
     private int age;
 
@@ -23,6 +39,13 @@ public class Member extends BaseEntity {        /* 스프링 Data JPA 방식 Aud
     @JoinColumn(name="team_id")         // FK를 가지고 있는 쪽이 연관관계 주인이다.
     private Team team;
 
+    // 낙관적 락 : update ... where member_id = ? and version = ? → 0건이면 OptimisticLockException
+    //   - 재시도는 OptimisticRetryExecutor 참고
+    //   - 벌크 연산(bulkAgePlus 등)은 영속성 컨텍스트를 거치지 않으므로 version 이 증가하지 않는다.
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     // JPA는 기본적으로 Default 생성자를 반드시 생성해야 하는대,
     // @NoArgsConstructor(access = AccessLevel.PROTECTED) 이 어노테이션 사용시 생략함.
 //    protected Member() {
@@ -48,10 +71,11 @@ public class Member extends BaseEntity {        /* 스프링 Data JPA 방식 Aud
      *    - 서로 연관관계를 세팅하는 옵션
      *    - Member는 Team을 변경할 수 있어야 한다.
      *    - 연관관계 주인쪽에 세팅한다.
+     *    - team.members 가 아직 로딩되지 않았다면 로딩하지 않고 추가만 큐에 쌓는다. (Team.members 참고)
      * */
     public void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
 
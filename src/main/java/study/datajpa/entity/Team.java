@@ -1,24 +1,57 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity @Getter @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)    // 2차 캐시 : 거의 변경되지 않으므로 DB 대신 캐시에서 조회
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})   // member등 연관관계는 빼고 작성할 것, (무한루프 위험)
 public class Team {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "team_seq_generator")   // 시퀀스를 묶음으로 할당받는다. (PooledSequenceGenerator 참고)
+    @GenericGenerator(name = "team_seq_generator",
+            strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name="team_id")
     private Long id;
     private String name;
 
+    // <팀 회원 수 (비정규화)>
+    //   - 회원 입력/삭제/팀 변경 시 TeamMemberCountEventListener 가 트랜잭션 커밋 직전에
+    //     update team set member_count = member_count + ? 로 원자적으로 반영한다.
+    //   - 엔티티 값은 갱신되지 않으므로(2차 캐시 포함) 조회는 TeamRepository.findMemberCountById 를 사용한다.
+    //   - updatable = false : 팀 정보 수정 시 오래된 값으로 덮어쓰지 않도록 한다.
+    @Setter(AccessLevel.NONE)
+    @Column(updatable = false)
+    private long memberCount;
+
+    // <EXTRA 지연로딩>
+    //   - 연관관계 주인이 아닌(mappedBy) 컬렉션에 add() 하면 Hibernate 는 컬렉션을 로딩하지 않고 추가 작업을 큐에 쌓아둔다.
+    //   - EXTRA 옵션을 주면 size() / isEmpty() / contains() 도 컬렉션 전체 대신 count 쿼리 등으로 처리한다.
+    //   - 따라서 회원이 많은 팀에 회원을 추가해도 기존 회원 목록을 메모리로 읽어오지 않는다.
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    // 연관관계 편의 메소드 (Member.changeTeam 에서 호출)
+    //   - 초기화되지 않은 members 는 로딩하지 않는다. (get/iterator 등으로 읽을 때 큐에 쌓인 회원까지 합쳐서 보인다)
+    void addMember(Member member) {
+        members.add(member);
+    }
 }
@@ -0,0 +1,173 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <리포지토리 메소드 모니터링>
+ *    - 지연시간 히스토그램 / 에러 : 스프링 부트 Actuator 가 기본으로 기록한다. (spring.data.repository.invocations, state / exception 태그)
+ *    - 여기서는 그 외를 기록한다.
+ *        1) 반환 건수 : spring.data.repository.rows (List / Page / Slice / Optional / 단건)
+ *           @Modifying 벌크 수정/삭제는 반환값(int/long)인 영향받은 행 수를 기록한다.
+ *        2) 느린 호출 : slow-threshold-millis 를 넘으면 메소드 + 파라미터를 경고 로그로 남기고, 최근 slow-log-size 건을 보관
+ *    - 리포지토리마다 Interceptor 하나, 메소드별 DistributionSummary 는 처음 한 번만 만들고 재사용한다. (호출마다 Meter 조회 없음)
+ *    - 등록은 RepositoryMonitorPostProcessor 참고 (파생 쿼리, @Query, 사용자 정의 구현 모두 적용)
+ * */
+@Slf4j
+@Component
+public class RepositoryInvocationMonitor {
+
+    private static final int MAX_ARG_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final int slowLogSize;
+
+    private final Deque<SlowInvocation> slowLog = new ArrayDeque<>();
+
+    public RepositoryInvocationMonitor(MeterRegistry meterRegistry,
+                                       @Value("${member.repository-monitor.slow-threshold-millis:200}") long slowThresholdMillis,
+                                       @Value("${member.repository-monitor.slow-log-size:100}") int slowLogSize) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.slowLogSize = slowLogSize;
+    }
+
+    // 리포지토리 하나에 붙일 advice (repository 태그 = 리포지토리 인터페이스 이름, Actuator 기본 지표와 같다)
+    public MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        return new Interceptor(repositoryInterface.getSimpleName());
+    }
+
+    // 최근 느린 호출 (최신순)
+    public List<SlowInvocation> slowInvocations() {
+        synchronized (slowLog) {
+            return new ArrayList<>(slowLog);
+        }
+    }
+
+    private void slow(SlowInvocation invocation) {
+        log.warn("느린 리포지토리 호출 : {} {} ms, rows={}, args={}", invocation.getMethod(),
+                invocation.getElapsedMillis(), invocation.getRows(), invocation.getArgs());
+        synchronized (slowLog) {
+            slowLog.addFirst(invocation);
+            while (slowLog.size() > slowLogSize) {
+                slowLog.removeLast();
+            }
+        }
+    }
+
+    // Stream 은 소비 전이라 셀 수 없다. (-1 : 기록하지 않음)
+    //   - @Modifying 메소드의 int/long 반환값은 결과 1건이 아니라 수정/삭제된 행 수이다.
+    private static int rowCount(Object result, boolean modifying) {
+        if (result == null) {
+            return 0;
+        }
+        if (modifying && result instanceof Number) {
+            return ((Number) result).intValue();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private static String format(Object arg) {
+        if (arg instanceof Collection && ((Collection<?>) arg).size() > 10) {
+            return "[" + ((Collection<?>) arg).size() + " items]";
+        }
+        String value = String.valueOf(arg);
+        return value.length() > MAX_ARG_LENGTH ? value.substring(0, MAX_ARG_LENGTH) + "..." : value;
+    }
+
+    private class Interceptor implements MethodInterceptor {
+        private final String repository;
+        private final ConcurrentMap<Method, DistributionSummary> rows = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Method, Boolean> modifying = new ConcurrentHashMap<>();
+
+        Interceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            Object result = null;
+            Throwable error = null;
+            try {
+                result = invocation.proceed();
+                return result;
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                Method method = invocation.getMethod();
+                int count = rowCount(result, modifying.computeIfAbsent(method,
+                        m -> AnnotatedElementUtils.hasAnnotation(m, Modifying.class)));
+                if (error == null && count >= 0) {
+                    rows.computeIfAbsent(method, this::rowsSummary).record(count);
+                }
+                if (elapsed >= slowThresholdNanos) {
+                    slow(new SlowInvocation(repository, method, invocation.getArguments(), elapsed, count, error));
+                }
+            }
+        }
+
+        private DistributionSummary rowsSummary(Method method) {
+            return DistributionSummary.builder("spring.data.repository.rows")
+                    .description("리포지토리 메소드가 반환한 건수 (@Modifying 은 수정/삭제 건수)")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Getter
+    public static class SlowInvocation {
+        private final LocalDateTime time = LocalDateTime.now();
+        private final String method;
+        private final List<String> args;
+        private final long elapsedMillis;
+        private final int rows;
+        private final String error;
+
+        SlowInvocation(String repository, Method method, Object[] args, long elapsedNanos, int rows, Throwable error) {
+            this.method = repository + "." + method.getName();
+            this.args = Stream.of(args).map(RepositoryInvocationMonitor::format).collect(Collectors.toList());
+            this.elapsedMillis = elapsedNanos / 1_000_000;
+            this.rows = rows;
+            this.error = error == null ? null : error.getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <리포지토리 지표 덤프>
+ *    - http://localhost:8080/actuator/repository
+ *        methods : 메소드별(+성공/실패) 호출 수, 평균/최대/백분위 지연시간(ms), 평균/최대 반환 건수
+ *        slow    : 최근 느린 호출 (파라미터 포함)
+ * */
+@Component
+@Endpoint(id = "repository")
+@RequiredArgsConstructor
+public class RepositoryMetricsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final RepositoryInvocationMonitor repositoryInvocationMonitor;
+
+    @ReadOperation
+    public Map<String, Object> dump() {
+        Map<String, Map<String, Object>> methods = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("spring.data.repository.invocations").timers()) {
+            String key = timer.getId().getTag("repository") + "." + timer.getId().getTag("method")
+                    + " [" + timer.getId().getTag("state") + "]";
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", timer.count());
+            values.put("meanMillis", timer.mean(TimeUnit.MILLISECONDS));
+            values.put("maxMillis", timer.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                values.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            methods.put(key, values);
+        }
+        for (DistributionSummary summary : meterRegistry.find("spring.data.repository.rows").summaries()) {
+            String prefix = summary.getId().getTag("repository") + "." + summary.getId().getTag("method");
+            methods.forEach((key, values) -> {
+                if (key.startsWith(prefix + " [")) {
+                    values.put("meanRows", summary.mean());
+                    values.put("maxRows", summary.max());
+                }
+            });
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("methods", methods);
+        result.put("slow", repositoryInvocationMonitor.slowInvocations());
+        return result;
+    }
+}
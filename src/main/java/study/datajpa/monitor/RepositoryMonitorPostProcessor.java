@@ -0,0 +1,32 @@
+package study.datajpa.monitor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * <리포지토리 프록시에 RepositoryInvocationMonitor 등록>
+ *    - 스프링 데이터가 리포지토리 프록시를 만들기 전에(RepositoryFactoryBeanSupport) advice 를 추가한다.
+ *    - BeanPostProcessor 는 일찍 만들어지므로 모니터는 ObjectProvider 로 필요할 때 꺼낸다.
+ * */
+@Component
+public class RepositoryMonitorPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<RepositoryInvocationMonitor> monitor;
+
+    public RepositoryMonitorPostProcessor(ObjectProvider<RepositoryInvocationMonitor> monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(monitor.getObject()
+                                    .interceptor(repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,140 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * <샘플링 + 비동기 SQL 로그>
+ *    - org.hibernate.SQL / org.hibernate.type / p6spy 기본 로그는 모든 SQL 을 요청 쓰레드에서 포맷팅하고 기록한다.
+ *    - 여기서는 일부만 남긴다.
+ *        1) 느린 SQL    : slow-threshold-millis 이상 → 파라미터 값까지 포함
+ *        2) 샘플링      : sample-rate 건 중 1건 → SQL 만 (0 이면 샘플링 안 함)
+ *    - 요청 쓰레드는 최소한의 값만 담아 크기가 고정된 큐(ArrayBlockingQueue)에 offer 만 한다.
+ *      큐가 가득 차면 기다리지 않고 버리고, 버린 건수를 센다. → JDBC 호출이 로그 때문에 막히지 않는다.
+ *    - 포맷팅(공백 정리)과 기록은 데몬 쓰레드(sql-log-writer) 하나가 담당한다.
+ *    - 전체 SQL 로그가 필요하면 sql-trace 프로필로 실행한다. (application.yml)
+ * */
+@Slf4j
+@Component
+public class SampledSqlLogger extends SimpleJdbcEventListener {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int sampleRate;
+    private final long slowThresholdNanos;
+    private final BlockingQueue<Entry> queue;
+
+    private final AtomicLong sequence = new AtomicLong();   // 샘플링 판단용 : 실행마다 고유한 순번
+    private final LongAdder executed = new LongAdder();     // 통계용
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private Thread writer;
+
+    public SampledSqlLogger(@Value("${member.sql-log.sample-rate:1000}") int sampleRate,
+                            @Value("${member.sql-log.slow-threshold-millis:100}") long slowThresholdMillis,
+                            @Value("${member.sql-log.queue-capacity:8192}") int queueCapacity) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drain, "sql-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        record(statementInformation.getSql(), statementInformation::getSqlWithValues, timeElapsedNanos);
+    }
+
+    // 요청 쓰레드 : 대상인지 판단하고 큐에 넣기만 한다.
+    void record(String sql, Supplier<String> sqlWithValues, long elapsedNanos) {
+        executed.increment();
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        // LongAdder.sum() 은 동시에 증가하는 값을 합친 근사치라서 여러 쓰레드가 같은 값을 보거나 배수를 건너뛸 수 있다.
+        boolean sampled = sampleRate > 0 && sequence.incrementAndGet() % sampleRate == 0;
+        if (!slow && !sampled) {
+            return;
+        }
+        Entry entry = new Entry(slow ? sqlWithValues.get() : sql, elapsedNanos, slow, Thread.currentThread().getName());
+        if (queue.offer(entry)) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    // 로그 쓰레드 : 포맷팅 + 기록
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                write(queue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            write(entry);
+        }
+    }
+
+    private void write(Entry entry) {
+        String sql = entry.sql == null ? "" : WHITESPACE.matcher(entry.sql).replaceAll(" ").trim();
+        if (entry.slow) {
+            log.warn("[slow {} ms] [{}] {}", entry.elapsedNanos / 1_000_000, entry.thread, sql);
+        } else {
+            log.info("[sample {} ms] [{}] {}", entry.elapsedNanos / 1_000_000, entry.thread, sql);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", (long) queue.size());
+        return stats;
+    }
+
+    private static class Entry {
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final String thread;
+
+        Entry(String sql, long elapsedNanos, boolean slow, String thread) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.thread = thread;
+        }
+    }
+}
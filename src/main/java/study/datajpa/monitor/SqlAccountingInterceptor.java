@@ -0,0 +1,66 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * <요청 단위 SQL 집계 인터셉터>
+ *    - 요청 시작 시 SqlRequestStats 를 열고, 끝나면 예산을 검사한 후 SqlEndpointSummary 에 누적한다.
+ *    - 엔드포인트 이름 : HTTP 메소드 + 매핑 패턴 (예: GET /member2/{id})
+ *    - 적용 경로는 WebConfig 참고
+ *    - 비동기 요청(/members/export 의 StreamingResponseBody 등)은 afterCompletion 대신 afterConcurrentHandlingStarted 가
+ *      요청 쓰레드에서 호출된다. 여기서 집계를 끝내서 ThreadLocal 이 풀의 다음 요청으로 새지 않게 한다.
+ *      비동기 재디스패치(ASYNC)는 같은 요청이므로 다시 집계하지 않는다. (별도 쓰레드의 SQL 은 집계 대상 아님)
+ * */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlAccountingInterceptor implements AsyncHandlerInterceptor {
+
+    private final SqlBudget sqlBudget;
+    private final SqlEndpointSummary sqlEndpointSummary;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            SqlRequestStats.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        SqlRequestStats stats = SqlRequestStats.end();
+        if (stats == null) {
+            return;
+        }
+        String endpoint = endpoint(request);
+        List<String> violations = sqlBudget.violations(stats);
+        if (!violations.isEmpty()) {
+            log.warn("SQL 예산 초과 [{}] {} (DB {} ms)", endpoint, violations, stats.getDbNanos() / 1_000_000);
+        }
+        sqlEndpointSummary.record(endpoint, stats, !violations.isEmpty());
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
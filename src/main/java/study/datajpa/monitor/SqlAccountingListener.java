@@ -0,0 +1,31 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * <p6spy JDBC 이벤트 → 요청 단위 SQL 집계>
+ *    - p6spy-spring-boot-starter 는 JdbcEventListener 빈을 자동으로 등록한다.
+ *    - 모든 실행(executeQuery / executeUpdate / executeBatch ...) 직후 호출된다.
+ *    - SqlRequestStats.start() 를 하지 않은 쓰레드에서는 아무것도 하지 않는다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class SqlAccountingListener extends SimpleJdbcEventListener {
+
+    private final SqlBudget sqlBudget;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats == null) {
+            return;
+        }
+        stats.record(statementInformation.getSql(), timeElapsedNanos);
+        sqlBudget.enforce(stats);
+    }
+}
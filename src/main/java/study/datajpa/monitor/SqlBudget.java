@@ -0,0 +1,62 @@
+package study.datajpa.monitor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <요청당 SQL 예산>
+ *    - max-statements : 요청 하나에서 실행할 수 있는 SQL 수
+ *    - max-repeated   : 같은 shape 의 SQL 을 반복할 수 있는 횟수 (N+1 감지)
+ *    - mode
+ *        LOG  : 요청이 끝난 후 경고 로그만 남긴다. (운영)
+ *        FAIL : 예산을 넘는 순간 SQL 실행을 예외로 중단한다. (테스트에서 member.sql-budget.mode=fail)
+ *    - 0 이하로 설정하면 해당 항목은 검사하지 않는다.
+ * */
+@Component
+public class SqlBudget {
+
+    public enum Mode { LOG, FAIL }
+
+    private final int maxStatements;
+    private final int maxRepeated;
+    private final Mode mode;
+
+    public SqlBudget(@Value("${member.sql-budget.max-statements:20}") int maxStatements,
+                     @Value("${member.sql-budget.max-repeated:5}") int maxRepeated,
+                     @Value("${member.sql-budget.mode:log}") String mode) {
+        this.maxStatements = maxStatements;
+        this.maxRepeated = maxRepeated;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // 예산 초과 내역 (없으면 빈 목록)
+    public List<String> violations(SqlRequestStats stats) {
+        List<String> violations = new ArrayList<>();
+        if (maxStatements > 0 && stats.getStatements() > maxStatements) {
+            violations.add("SQL " + stats.getStatements() + "건 (예산 " + maxStatements + "건)");
+        }
+        if (maxRepeated > 0 && stats.getWorstShapeCount() > maxRepeated) {
+            violations.add("같은 SQL " + stats.getWorstShapeCount() + "회 반복 (예산 " + maxRepeated + "회) : "
+                    + stats.getWorstShape());
+        }
+        return violations;
+    }
+
+    // FAIL 모드 : SQL 실행 직후 호출, 초과하면 IllegalStateException
+    void enforce(SqlRequestStats stats) {
+        if (mode != Mode.FAIL) {
+            return;
+        }
+        List<String> violations = violations(stats);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("SQL 예산 초과 : " + String.join(", ", violations));
+        }
+    }
+}
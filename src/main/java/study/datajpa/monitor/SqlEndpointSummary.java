@@ -0,0 +1,74 @@
+package study.datajpa.monitor;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <엔드포인트별 SQL 요약>
+ *    - 요청이 끝날 때마다 SqlRequestStats 를 엔드포인트(GET /members/keyset 등) 별로 누적한다.
+ *    - /sql/stats 로 조회 : 요청 수, 요청당 평균/최대 SQL 수, DB 시간, 예산 초과 횟수, 가장 많이 반복된 SQL
+ * */
+@Component
+public class SqlEndpointSummary {
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, SqlRequestStats stats, boolean violated) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(stats, violated);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> result.put(endpoint, stats.toMap()));
+        return result;
+    }
+
+    public void clear() {
+        endpoints.clear();
+    }
+
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder dbNanos = new LongAdder();
+        private final LongAdder violations = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final AtomicLong maxRepeated = new AtomicLong();
+        private final AtomicReference<String> maxRepeatedShape = new AtomicReference<>();
+
+        void record(SqlRequestStats stats, boolean violated) {
+            requests.increment();
+            statements.add(stats.getStatements());
+            dbNanos.add(stats.getDbNanos());
+            if (violated) {
+                violations.increment();
+            }
+            maxStatements.accumulateAndGet(stats.getStatements(), Math::max);
+            if (stats.getWorstShapeCount() > maxRepeated.get()) {
+                maxRepeated.set(stats.getWorstShapeCount());
+                maxRepeatedShape.set(stats.getWorstShape());
+            }
+        }
+
+        Map<String, Object> toMap() {
+            long count = requests.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("requests", count);
+            values.put("avgStatements", count == 0 ? 0 : (double) statements.sum() / count);
+            values.put("maxStatements", maxStatements.get());
+            values.put("avgDbMillis", count == 0 ? 0 : dbNanos.sum() / 1_000_000.0 / count);
+            values.put("budgetViolations", violations.sum());
+            values.put("maxRepeated", maxRepeated.get());
+            values.put("maxRepeatedSql", maxRepeatedShape.get());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package study.datajpa.monitor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * <요청 단위 SQL 집계>
+ *    - 요청 쓰레드에 묶인(ThreadLocal) 집계 : 실행한 SQL 수, DB 시간 합계, 같은 모양(shape) SQL 반복 횟수
+ *    - shape : 파라미터 값, 리터럴, IN 목록 길이를 지운 SQL → 값만 다른 같은 쿼리가 반복되면 N+1 의심
+ *      예) MemberDto::new 안에서 member.getTeam().getName() → select ... from team where team_id=? 가 행마다 반복
+ *    - start() 를 호출한 쓰레드에서만 집계된다. (다른 쓰레드의 count 쿼리, StreamingResponseBody 는 제외)
+ * */
+public class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private long dbNanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private String worstShape;
+    private int worstShapeCount;
+
+    public static SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static SqlRequestStats end() {
+        SqlRequestStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void record(String sql, long elapsedNanos) {
+        statements++;
+        dbNanos += elapsedNanos;
+        String shape = shapeOf(sql);
+        int count = shapes.merge(shape, 1, Integer::sum);
+        if (count > worstShapeCount) {
+            worstShapeCount = count;
+            worstShape = shape;
+        }
+    }
+
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase();
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    public int getDistinctShapes() {
+        return shapes.size();
+    }
+
+    // fragment 를 포함하는 shape 의 실행 횟수 합계 (예: "member_seq" → 시퀀스 호출 수)
+    public int countOf(String fragment) {
+        String lower = fragment.toLowerCase();
+        return shapes.entrySet().stream()
+                .filter(e -> e.getKey().contains(lower))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    // 가장 많이 반복된 shape 와 횟수
+    public String getWorstShape() {
+        return worstShape;
+    }
+
+    public int getWorstShapeCount() {
+        return worstShapeCount;
+    }
+}
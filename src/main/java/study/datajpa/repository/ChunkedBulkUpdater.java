@@ -0,0 +1,173 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.BulkJobProgress;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.function.Supplier;
+
+/**
+ * <청크 단위 벌크 수정 엔진>
+ *    - 테이블 전체를 UPDATE 한 번으로 수정하면 모든 대상 행의 락을 트랜잭션 끝까지 잡고 있게 된다.
+ *    - id 범위를 chunkSize 씩 잘라서 범위마다 별도의 트랜잭션으로 커밋한다. (락 유지 시간 = 청크 1개)
+ *    - 진행 상태(BulkJobProgress)를 청크와 같은 트랜잭션에 기록하므로, 중단 후 같은 jobName 으로 다시 실행하면 이어서 수행한다.
+ *    - id 범위를 받는 @Modifying 쿼리면 무엇이든 사용할 수 있다.
+ *    - 완료된 작업의 진행 상태도 남겨 둔다. 같은 jobName 으로 다시 실행하면 아무것도 수정하지 않는다.
+ *      같은 작업을 처음부터 다시 수행하려면 reset(jobName) 후 실행한다.
+ *    - 청크 트랜잭션마다 진행 상태 행을 PESSIMISTIC_WRITE 로 잠그고, 잠근 행의 lastId 로 다음 범위를 정한다.
+ *      같은 jobName 을 동시에 실행해도(재시도 중복 등) 청크가 나뉘어 처리될 뿐, 같은 행을 두 번 수정하지 않는다.
+ *
+ *    예)
+ *      chunkedBulkUpdater.run("bulkAgeUpdate-25", "Member", 1000,
+ *              (fromId, toId) -> memberRepository.bulkAgeUpdateRange(25, fromId, toId));
+ * */
+@Slf4j
+@Component
+public class ChunkedBulkUpdater {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate chunkTx;
+
+    public ChunkedBulkUpdater(PlatformTransactionManager transactionManager) {
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // id 범위 [fromId, toId] 를 수정하고 수정 건수를 반환하는 @Modifying 쿼리
+    @FunctionalInterface
+    public interface RangeUpdate {
+        int update(long fromId, long toId);
+    }
+
+    // 엔티티 전체 id 범위 [min(id), max(id)] 를 수정한다. (진행 상태가 있으면 저장된 범위로 이어서 수행)
+    public Result run(String jobName, String entityName, int chunkSize, RangeUpdate rangeUpdate) {
+        return run(jobName, chunkSize, rangeUpdate, () -> idRange(entityName), false);
+    }
+
+    // 주어진 id 범위 [fromId, toId] 만 수정한다.
+    //    - 진행 상태가 다른 범위로 만들어져 있으면 IllegalStateException (다른 범위를 수정하려면 reset 또는 다른 jobName)
+    public Result run(String jobName, long fromId, long toId, int chunkSize, RangeUpdate rangeUpdate) {
+        return run(jobName, chunkSize, rangeUpdate, () -> new long[]{fromId - 1, toId}, true);
+    }
+
+    // 진행 상태를 지운다. 다음 run() 은 처음부터 다시 수행한다. (진행 상태가 있었으면 true)
+    public boolean reset(String jobName) {
+        Boolean removed = chunkTx.execute(status -> {
+            BulkJobProgress progress = em.find(BulkJobProgress.class, jobName);
+            if (progress == null) {
+                return false;
+            }
+            em.remove(progress);
+            return true;
+        });
+        return Boolean.TRUE.equals(removed);
+    }
+
+    private Result run(String jobName, int chunkSize, RangeUpdate rangeUpdate, Supplier<long[]> range, boolean sameRange) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다. chunkSize=" + chunkSize);
+        }
+
+        chunkTx.executeWithoutResult(status -> start(jobName, range, sameRange));
+        long startNanos = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+
+        Chunk chunk;
+        while ((chunk = chunkTx.execute(status -> nextChunk(jobName, chunkSize, rangeUpdate))) != null) {
+            rows += chunk.rows;
+            chunks++;
+            log.debug("bulk job {} : id {} ~ {} 완료", jobName, chunk.fromId, chunk.toId);
+        }
+
+        Result result = new Result(jobName, rows, chunks, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("bulk job 완료 : {}", result);
+        return result;
+    }
+
+    // 처음이면 진행 상태를 만들고, 있으면 이어서 수행한다.
+    private void start(String jobName, Supplier<long[]> range, boolean sameRange) {
+        BulkJobProgress progress = em.find(BulkJobProgress.class, jobName);
+        if (progress == null) {
+            long[] lastAndMax = range.get();
+            em.persist(new BulkJobProgress(jobName, lastAndMax[0], lastAndMax[1]));
+            return;
+        }
+        if (sameRange) {
+            long[] lastAndMax = range.get();
+            if (progress.getMaxId() != lastAndMax[1] || progress.getLastId() < lastAndMax[0]) {
+                throw new IllegalStateException("bulk job " + jobName + " 은 다른 id 범위로 진행 중입니다. "
+                        + "요청=[" + (lastAndMax[0] + 1) + ", " + lastAndMax[1] + "], 진행 상태=" + progress);
+            }
+        }
+    }
+
+    // 진행 상태 행을 잠그고, 잠근 행의 lastId 다음 청크를 수정한다. 완료된 작업이면 null
+    private Chunk nextChunk(String jobName, int chunkSize, RangeUpdate rangeUpdate) {
+        BulkJobProgress locked = em.find(BulkJobProgress.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+        if (locked == null) {
+            throw new IllegalStateException("bulk job " + jobName + " 의 진행 상태가 없습니다. (실행 중 reset)");
+        }
+        if (locked.isCompleted()) {
+            return null;
+        }
+        long fromId = locked.getLastId() + 1;
+        long toId = Math.min(locked.getLastId() + chunkSize, locked.getMaxId());
+        int updated = rangeUpdate.update(fromId, toId);
+
+        // @Modifying(clearAutomatically = true) 쿼리는 영속성 컨텍스트를 비우므로 다시 조회한다. (행 잠금은 트랜잭션 끝까지 유지)
+        BulkJobProgress current = em.find(BulkJobProgress.class, jobName);
+        current.advance(toId, updated);
+        return new Chunk(fromId, toId, updated);
+    }
+
+    // {처리 완료로 볼 마지막 id (min(id) - 1), max(id)} : 행이 없으면 {0, 0}
+    private long[] idRange(String entityName) {
+        Object[] range = em.createQuery("select min(e.id), max(e.id) from " + entityName + " e", Object[].class)
+                .getSingleResult();
+        if (range[0] == null) {
+            return new long[]{0, 0};
+        }
+        return new long[]{((Number) range[0]).longValue() - 1, ((Number) range[1]).longValue()};
+    }
+
+    private static class Chunk {
+        private final long fromId;
+        private final long toId;
+        private final int rows;
+
+        private Chunk(long fromId, long toId, int rows) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rows = rows;
+        }
+    }
+
+    @Getter
+    @ToString
+    public static class Result {
+        private final String jobName;
+        private final long updatedRows;      // 이번 실행에서 수정한 건수
+        private final int chunks;
+        private final long elapsedMillis;
+        private final double rowsPerSecond;
+
+        private Result(String jobName, long updatedRows, int chunks, long elapsedMillis) {
+            this.jobName = jobName;
+            this.updatedRows = updatedRows;
+            this.chunks = chunks;
+            this.elapsedMillis = elapsedMillis;
+            this.rowsPerSecond = elapsedMillis == 0 ? updatedRows : updatedRows * 1000.0 / elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <Page count 캐시>
+ *    - 쿼리 + 파라미터(CountKey) 별로 전체 건수를 TTL 동안 재사용한다.
+ *    - 엔티티별 세대(generation) 번호를 두고, insert/delete 시 세대를 올려서 한번에 무효화한다.
+ *      (MemberCountCacheListener 참고)
+ *    - 벌크 수정(@Modifying)으로 조건 컬럼이 바뀌는 경우는 TTL 만큼 이전 건수가 보일 수 있다. (대략적인 건수 용도)
+ * */
+@Component
+public class CountCache {
+
+    private final ConcurrentMap<CountKey, Entry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public CountCache(@Value("${member.page.count-cache.ttl-seconds:60}") long ttlSeconds,
+                      @Value("${member.page.count-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(CountKey key, LongSupplier loader) {
+        long generation = generation(key.getEntityName()).get();
+        long now = System.currentTimeMillis();
+
+        Entry entry = cache.get(key);
+        if (entry != null && entry.generation == generation && entry.expiresAt > now) {
+            return entry.count;
+        }
+
+        long count = loader.getAsLong();
+        if (cache.size() >= maxEntries) {
+            cache.clear();   // 키 폭증 방지 (단순하게 전체 비움)
+        }
+        // 조회 도중 무효화가 일어났으면 오래된 값이 되므로 저장하지 않는다.
+        if (generation(key.getEntityName()).get() == generation) {
+            cache.put(key, new Entry(count, generation, now + ttlMillis));
+        }
+        return count;
+    }
+
+    public void invalidate(String entityName) {
+        generation(entityName).incrementAndGet();
+    }
+
+    private AtomicLong generation(String entityName) {
+        return generations.computeIfAbsent(entityName, k -> new AtomicLong());
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long generation;
+        private final long expiresAt;
+
+        private Entry(long count, long generation, long expiresAt) {
+            this.count = count;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
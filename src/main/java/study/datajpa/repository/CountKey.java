@@ -0,0 +1,53 @@
+package study.datajpa.repository;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <count 캐시 키>
+ *    - entityName : 무효화 단위 (해당 엔티티가 insert/delete 되면 같은 entityName 의 캐시가 모두 무효화)
+ *    - query + params : 같은 쿼리, 같은 파라미터일 때만 같은 키
+ *    - table : 조건 없는 전체 count 일 때만 지정 → CountMode.ESTIMATE 에서 DB 통계(추정치) 사용 가능
+ *    - estimated : 추정치를 캐시할 때의 키 (estimated()) → CACHED 의 정확한 건수와 섞이지 않는다.
+ * */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CountKey {
+
+    private final String entityName;
+    private final String query;
+    private final List<Object> params;
+    private final String table;
+    private final boolean estimated;
+
+    private CountKey(String entityName, String query, List<Object> params, String table, boolean estimated) {
+        this.entityName = entityName;
+        this.query = query;
+        this.params = params;
+        this.table = table;
+        this.estimated = estimated;
+    }
+
+    public static CountKey of(String entityName, String query, Object... params) {
+        return new CountKey(entityName, query, Arrays.asList(params), null, false);
+    }
+
+    // 조건 없는 전체 건수 (select count(*) from table)
+    public static CountKey unfiltered(String entityName, String query, String table) {
+        return new CountKey(entityName, query, List.of(), table, false);
+    }
+
+    // 같은 쿼리의 추정치용 키
+    public CountKey estimated() {
+        return new CountKey(entityName, query, params, table, true);
+    }
+
+    public boolean isUnfiltered() {
+        return table != null;
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * <Page count 쿼리 수행 방식>
+ *    - EXACT      : 기존 방식. 컨텐츠 쿼리 후 count 쿼리를 같은 쓰레드에서 순차 수행
+ *    - CONCURRENT : count 쿼리를 별도 쓰레드(별도 커넥션/트랜잭션)에서 컨텐츠 쿼리와 동시에 수행
+ *    - CACHED     : 같은 쿼리 + 파라미터의 count 결과를 TTL 동안 재사용 (insert/delete 시 무효화)
+ *    - ESTIMATE   : 조건 없는 전체 count 는 DB 테이블 통계(추정치)를 사용, 조건이 있으면 CACHED 와 동일
+ *
+ *    - 어떤 방식이든 컨텐츠가 페이지 크기보다 적으면 (첫 페이지 또는 마지막 페이지)
+ *      count 결과를 쓰지 않고 offset + content.size() 로 전체 건수를 계산한다.
+ * */
+public enum CountMode {
+    EXACT,
+    CONCURRENT,
+    CACHED,
+    ESTIMATE;
+
+    public static CountMode of(Pageable pageable) {
+        if (pageable instanceof CountPageRequest) {
+            return ((CountPageRequest) pageable).getCountMode();
+        }
+        return EXACT;
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Objects;
+
+/**
+ * <Pageable 단위 count 옵션>
+ *    - PageRequest 에 CountMode 를 함께 실어서 Repository 로 넘긴다.
+ *    - 예) memberRepository.findPageByAge(10, CountPageRequest.of(0, 10, CountMode.CONCURRENT));
+ * */
+public class CountPageRequest extends PageRequest {
+
+    private final CountMode countMode;
+
+    protected CountPageRequest(int page, int size, Sort sort, CountMode countMode) {
+        super(page, size, sort);
+        this.countMode = countMode;
+    }
+
+    public static CountPageRequest of(int page, int size, CountMode countMode) {
+        return new CountPageRequest(page, size, Sort.unsorted(), countMode);
+    }
+
+    public static CountPageRequest of(int page, int size, Sort sort, CountMode countMode) {
+        return new CountPageRequest(page, size, sort, countMode);
+    }
+
+    // 웹 요청으로 바인딩된 Pageable 에 옵션만 덧붙일 때 사용
+    public static Pageable of(Pageable pageable, CountMode countMode) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return new CountPageRequest(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), countMode);
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    @Override
+    public PageRequest next() {
+        return new CountPageRequest(getPageNumber() + 1, getPageSize(), getSort(), countMode);
+    }
+
+    @Override
+    public PageRequest previous() {
+        return getPageNumber() == 0 ? this : new CountPageRequest(getPageNumber() - 1, getPageSize(), getSort(), countMode);
+    }
+
+    @Override
+    public PageRequest first() {
+        return new CountPageRequest(0, getPageSize(), getSort(), countMode);
+    }
+
+    @Override
+    public PageRequest withPage(int pageNumber) {
+        return new CountPageRequest(pageNumber, getPageSize(), getSort(), countMode);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CountPageRequest)) {
+            return false;
+        }
+        return super.equals(obj) && countMode == ((CountPageRequest) obj).countMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(countMode);
+    }
+}
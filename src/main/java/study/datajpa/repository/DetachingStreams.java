@@ -0,0 +1,51 @@
+package study.datajpa.repository;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <엔티티 스트림 + 자동 준영속(detach)>
+ *    - getResultStream() 은 커서(ScrollableResults)로 fetchSize 만큼씩 읽지만,
+ *      읽은 엔티티는 모두 영속성 컨텍스트에 남는다. → 5천만 건을 읽으면 EntityManager 도 5천만 건
+ *    - 다음 행을 요청받는 시점에 직전 엔티티는 소비가 끝난 것이므로 detach 한다.
+ *    - 끝까지 읽으면 바로 커서를 닫고, 중간에 멈춰도 Stream.close() 로 커서가 닫힌다. (try-with-resources 필수)
+ *
+ *    - 연관 엔티티(예: Team)는 detach 하지 않는다. (다른 회원과 공유, 건수가 작다)
+ * */
+final class DetachingStreams {
+
+    private DetachingStreams() {
+    }
+
+    static <T> Stream<T> detaching(EntityManager em, Stream<T> source) {
+        Iterator<T> iterator = source.iterator();
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private T previous;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                detachPrevious();
+                if (!iterator.hasNext()) {
+                    source.close();
+                    return false;
+                }
+                previous = iterator.next();
+                action.accept(previous);
+                return true;
+            }
+
+            private void detachPrevious() {
+                if (previous != null && em.contains(previous)) {
+                    em.detach(previous);
+                }
+                previous = null;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(source::close);
+    }
+}
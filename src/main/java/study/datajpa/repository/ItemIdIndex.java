@@ -0,0 +1,166 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * <Item id 존재 여부 인덱스 (Bloom Filter)>
+ *    - mightContain(id) == false 이면 DB 에 "절대" 없는 id 이다. → merge() 의 사전 select 없이 바로 persist()
+ *    - mightContain(id) == true  이면 있을 "수도" 있는 id 이다.  → 기존처럼 merge()
+ *
+ *    - 애플리케이션 시작 시 item 테이블의 id 로 다시 만들고, 이후 입력(persist/upsert) 시마다 추가한다.
+ *    - Bloom Filter 는 삭제를 지원하지 않는다. 삭제된 id 는 "있을 수도 있음" 으로 남을 뿐이므로 안전하다. (오탐률만 증가)
+ *    - 다시 만들기 전(ready == false)에는 항상 true 를 반환해서 기존 동작(merge)을 유지한다.
+ *    - 주의 : 이 애플리케이션을 거치지 않고 입력된 id 는 알 수 없다. (다른 서버/직접 SQL/다른 인스턴스의 upsertAll)
+ *             모르는 id 를 "절대 없음" 으로 판단하면 persist() 가 기본키 중복으로 실패한다.
+ *             → 기본값은 꺼짐(item.id-index.enabled=false) : 항상 true 를 반환하고 인덱스를 만들지 않는다.
+ *               이 애플리케이션 인스턴스 하나만 item 을 입력하는 경우에만 켠다.
+ * */
+@Slf4j
+@Component
+public class ItemIdIndex {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final boolean enabled;
+
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong removals = new AtomicLong();
+    private volatile boolean ready;
+
+    @PersistenceContext
+    private EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+
+    public ItemIdIndex(PlatformTransactionManager transactionManager,
+                       @Value("${item.id-index.expected-insertions:1000000}") long expectedInsertions,
+                       @Value("${item.id-index.false-positive-rate:0.01}") double falsePositiveRate,
+                       @Value("${item.id-index.enabled:false}") boolean enabled) {
+        // m = -n * ln(p) / (ln2)^2 ,  k = m / n * ln2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitSize / 64));
+        this.expectedInsertions = expectedInsertions;
+        this.enabled = enabled;
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Item id index 사용 안 함 (item.id-index.enabled=false) : 항상 merge()");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<String> ids = em.createQuery("select i.id from Item i", String.class).getResultStream()) {
+                ids.forEach(this::put);
+            }
+        });
+        ready = true;
+        log.info("Item id index 생성 완료 ({} ms) : {}", System.currentTimeMillis() - start, stats());
+    }
+
+    // 모든 비트가 이미 켜져 있으면 (같은 id 를 다시 넣으면) 입력 건수를 늘리지 않는다.
+    public void put(String id) {
+        if (!enabled) {
+            return;
+        }
+        long hash = hash64(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitSize);
+            changed |= setBit(bit);
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    public boolean mightContain(String id) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        long hash = hash64(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitSize);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void removed(String id) {
+        removals.incrementAndGet();
+    }
+
+    // 현재 입력 건수 기준 오탐률 : (1 - e^(-k * n / m))^k
+    public double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitSize), hashCount);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("insertions", insertions.get());
+        stats.put("removals", removals.get());
+        stats.put("expectedInsertions", expectedInsertions);
+        stats.put("bitSize", bitSize);
+        stats.put("hashCount", hashCount);
+        stats.put("memoryBytes", bitSize / 8);
+        stats.put("falsePositiveRate", falsePositiveRate());
+        return stats;
+    }
+
+    // 이 호출로 비트가 켜졌으면 true
+    private boolean setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long old;
+        do {
+            old = bits.get(index);
+            if ((old & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(index, old, old | mask));
+        return true;
+    }
+
+    // FNV-1a 64bit + 비트 섞기 (상위/하위 32bit 를 두 개의 해시로 사용)
+    private static long hash64(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Item;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * <Item id 인덱스 유지>
+ *    - Item 이 입력되면 ItemIdIndex 에 id 를 추가한다.
+ *    - 삭제는 Bloom Filter 에서 지울 수 없으므로 건수만 기록한다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class ItemIdIndexListener {
+
+    private final ItemIdIndex itemIdIndex;
+
+    @PostPersist
+    public void inserted(Item item) {
+        itemIdIndex.put(item.getId());
+    }
+
+    @PostRemove
+    public void removed(Item item) {
+        itemIdIndex.removed(item.getId());
+    }
+}
@@ -3,5 +3,8 @@ package study.datajpa.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.datajpa.entity.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+// Item 의 식별자는 직접 할당하는 String 이다.
+public interface ItemRepository extends JpaRepository<Item, String>
+        , ItemRepositoryCustom
+{
 }
@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    // 대량 Upsert : id 가 있으면 name 만 수정, 없으면 입력 (건별 사전 select 없음)
+    int upsertAll(Iterable<Item> items, int batchSize);
+
+    // save() 재정의 : isNew() 가 false 여도 ItemIdIndex 에 없는 id 이면 select 없이 persist()
+    <S extends Item> S save(S item);
+
+    // saveAll() 재정의 : 건마다 위의 save() 를 거친다.
+    <S extends Item> List<S> saveAll(Iterable<S> items);
+}
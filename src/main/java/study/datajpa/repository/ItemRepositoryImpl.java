@@ -0,0 +1,105 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <Item 대량 Upsert>
+ *    - save() 는 isNew() 가 false 이면 merge() 를 호출하고, merge() 는 건마다 select 로 존재 여부를 확인한다.
+ *    - id 가 있을 수도 없을 수도 있는 수신 데이터(feed)는 DB 의 MERGE 문 한 번으로 처리한다.
+ *    - 있으면 name 만 수정하고 created_date 는 건드리지 않는다. 없으면 입력한다.
+ *    - JdbcTemplate 배치로 batchSize 건씩 묶어서 전송한다.
+ *    - JPA 를 거치지 않으므로 같은 트랜잭션의 영속성 컨텍스트에 올라와 있는 Item 은 갱신되지 않는다.
+ *
+ * <Item save() 재정의>
+ *    - 직접 할당한 id 에 createdDate 까지 채워진 Item 은 isNew() == false 라서 merge() 의 select 가 발생한다.
+ *    - ItemIdIndex(Bloom Filter) 가 "절대 없음" 이라고 하면 select 없이 바로 persist() 한다.
+ *      인덱스가 꺼져 있으면(item.id-index.enabled=false, 기본값) 기존처럼 merge() 한다.
+ *    - persist() 전에 id 를 인덱스에 먼저 넣는다. @PostPersist 는 flush 때 호출되므로,
+ *      flush 전에 같은 id 의 다른 인스턴스를 다시 save() 하면 persist() 가 EntityExistsException 을 던지기 때문이다.
+ *      (두 번째 save() 는 merge() 로 가고, 영속성 컨텍스트에 있는 첫 번째 인스턴스에 병합된다.)
+ *    - saveAll() 도 이 save() 를 거친다. (SimpleJpaRepository.saveAll() 은 내부에서 자신의 save() 를 호출하므로 재정의)
+ * */
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "merge into item t                                                        " +
+            "using (select cast(? as varchar(255)) as id                              " +
+            "            , cast(? as varchar(255)) as name                            " +
+            "            , cast(? as timestamp)    as created_date) s                 " +
+            "   on t.id = s.id                                                        " +
+            " when matched then update set t.name = s.name                            " +
+            " when not matched then insert (id, name, created_date)                   " +
+            "                       values (s.id, s.name, s.created_date)             ";
+
+    @PersistenceContext
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemIdIndex itemIdIndex;
+
+    @Override
+    @Transactional
+    public <S extends Item> S save(S item) {
+        if (item.isNew() || !itemIdIndex.mightContain(item.getId())) {
+            itemIdIndex.put(item.getId());
+            em.persist(item);
+            return item;
+        }
+        return em.merge(item);
+    }
+
+    @Override
+    @Transactional
+    public <S extends Item> List<S> saveAll(Iterable<S> items) {
+        List<S> result = new ArrayList<>();
+        for (S item : items) {
+            result.add(save(item));
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public int upsertAll(Iterable<Item> items, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize 는 1 이상이어야 합니다. batchSize=" + batchSize);
+        }
+
+        List<Item> batch = new ArrayList<>(batchSize);
+        int count = 0;
+        for (Item item : items) {
+            batch.add(item);
+            if (batch.size() == batchSize) {
+                count += flush(batch);
+            }
+        }
+        return count + flush(batch);
+    }
+
+    private int flush(List<Item> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setString(2, item.getName());
+            // 신규 입력일 때만 사용된다. (수정 시에는 기존 created_date 유지)
+            ps.setTimestamp(3, Timestamp.valueOf(item.getCreatedDate() != null ? item.getCreatedDate() : now));
+        });
+        batch.forEach(item -> itemIdIndex.put(item.getId()));
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * <Member count 캐시 무효화>
+ *    - Member 가 insert / delete 되면 Member 관련 count 캐시를 모두 무효화한다.
+ *    - 스프링 부트는 Hibernate 에 SpringBeanContainer 를 등록하므로 엔티티 리스너도 스프링 빈으로 주입받을 수 있다.
+ *    - 무효화는 두 번 한다.
+ *        1) flush 시점 (@PostPersist / @PostRemove) : 같은 트랜잭션 안의 조회가 이전 건수를 받지 않도록
+ *        2) 커밋 이후 (afterCommit) : flush ~ 커밋 사이에 다른 쓰레드가 이전 건수를 다시 계산해서
+ *           새 세대로 저장했을 수 있으므로, 커밋 후 한 번 더 세대를 올린다.
+ *    - 트랜잭션당 afterCommit 등록은 한 번만 한다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class MemberCountCacheListener {
+
+    private static final String ENTITY_NAME = Member.class.getSimpleName();
+    private static final Object SYNC_KEY = MemberCountCacheListener.class.getName() + ".afterCommit";
+
+    private final CountCache countCache;
+
+    @PostPersist
+    @PostRemove
+    public void invalidate(Member member) {
+        countCache.invalidate(ENTITY_NAME);
+        invalidateAfterCommit();
+    }
+
+    private void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(SYNC_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(SYNC_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                countCache.invalidate(ENTITY_NAME);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SYNC_KEY);
+            }
+        });
+    }
+}
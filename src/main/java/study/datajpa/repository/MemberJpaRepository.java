@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
@@ -26,6 +27,9 @@ public class MemberJpaRepository {
     }
 
     // JPQL 전체 조회하기
+    //   - 리포트성 조회 : 읽기 전용 트랜잭션 (Hibernate 세션을 defaultReadOnly + FlushMode.MANUAL 로 연다. 스냅샷 없음)
+    //   - 바깥에 이미 트랜잭션이 있으면 그 트랜잭션에 참여한다. (바깥 설정을 따른다)
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         List<Member> result = em.createQuery("select m from Member m ", Member.class)
                 .getResultList();
@@ -39,6 +43,7 @@ public class MemberJpaRepository {
     }
 
     // 단건 조회,, 전체 건수 조회(getSingleResult())
+    @Transactional(readOnly = true)
     public Long count() {
         Long singleResult = em.createQuery("select count(m) from Member m ", Long.class)
                 .getSingleResult();
@@ -97,6 +102,19 @@ public class MemberJpaRepository {
                 .setParameter("age", age)
                 .executeUpdate();
     }
+
+    // 청크 단위 벌크 수정용 : id 범위 [fromId, toId] 만 수정한다. (ChunkedBulkUpdater 참고)
+    public int bulkAgePlusRange(int age, long fromId, long toId) {
+        return em.createQuery(
+                "update Member m            " +
+                        "  set m.age = m.age * 100 " +
+                        "where m.age <= :age       " +
+                        "  and m.id between :fromId and :toId" )
+                .setParameter("age", age)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+    }
     // 순수 JPA벌크 수정하기. =============================================================================================
 
 }
@@ -0,0 +1,182 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <회원 병렬 분할 스캔>
+ *    - MemberJpaRepository.findAll() 은 한 쓰레드, 한 트랜잭션에서 전체를 읽는다.
+ *    - member_id 의 min ~ max 를 partitions 개 범위로 나누고, 범위마다 별도 쓰레드의 읽기전용 트랜잭션
+ *      (= 별도 EntityManager, 별도 커넥션) 에서 읽는다.
+ *    - 범위 안에서는 id 기준 keyset 으로 chunkSize 씩 읽고, chunk 가 끝날 때마다 영속성 컨텍스트를 비운다.
+ *    - Specification(MemberSpec) 을 필터로 함께 적용할 수 있다.
+ *
+ *    - 동시에 실행되는 범위 수 = 쓰레드 수 → 커넥션 풀 크기보다 작게 설정 (member.partition-scan.threads)
+ *    - callback 은 여러 쓰레드에서 동시에 호출되므로 쓰레드 안전해야 한다.
+ *    - callback 이 받는 엔티티는 chunk 가 끝나면 준영속 상태가 된다. (지연로딩 불가, 필요한 값은 callback 안에서 사용)
+ *    - 한 범위가 실패하면 나머지 범위는 공유 플래그(cancelled)를 보고 다음 회원부터 멈춘다.
+ *      CompletableFuture.cancel(true) 는 실행 중인 작업을 인터럽트하지 않으므로 사용하지 않는다.
+ *      scan() 은 모든 범위가 멈춘 뒤에 첫 번째 예외를 던진다. (예외 후 callback 이 호출되지 않음)
+ *
+ *    예)
+ *      memberPartitionScanner.scan(8, MemberSpec.teamName("TEAM A"), 1000, member -> counter.increment());
+ * */
+@Slf4j
+@Component
+public class MemberPartitionScanner {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate scanTx;
+    private final ExecutorService executor;
+
+    public MemberPartitionScanner(PlatformTransactionManager transactionManager,
+                                  @Value("${member.partition-scan.threads:4}") int threads) {
+        this.scanTx = new TransactionTemplate(transactionManager);
+        this.scanTx.setReadOnly(true);
+        this.scanTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "member-scan-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Result scan(int partitions, Specification<Member> spec, int chunkSize, Consumer<? super Member> callback) {
+        if (partitions < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("partitions, chunkSize 는 1 이상이어야 합니다. partitions="
+                    + partitions + ", chunkSize=" + chunkSize);
+        }
+
+        long startNanos = System.nanoTime();
+        Object[] range = scanTx.execute(status ->
+                em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class).getSingleResult());
+        if (range == null || range[0] == null) {
+            return new Result(0, 0, 0);
+        }
+        long minId = ((Number) range[0]).longValue();
+        long maxId = ((Number) range[1]).longValue();
+
+        // [minId, maxId] 를 partitions 개의 (fromExclusive, toInclusive] 범위로 나눈다.
+        long span = maxId - minId + 1;
+        int count = (int) Math.min(partitions, span);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<CompletableFuture<Long>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long fromExclusive = minId - 1 + span * i / count;
+            long toInclusive = minId - 1 + span * (i + 1) / count;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return scanTx.execute(status -> scanRange(fromExclusive, toInclusive, spec, chunkSize, callback, cancelled));
+                } catch (RuntimeException e) {
+                    cancelled.set(true);
+                    throw e;
+                }
+            }, executor));
+        }
+
+        long rows = 0;
+        try {
+            for (CompletableFuture<Long> future : futures) {
+                rows += future.join();
+            }
+        } catch (CompletionException e) {
+            cancelled.set(true);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        Result result = new Result(rows, count, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("member partition scan 완료 : {}", result);
+        return result;
+    }
+
+    // 범위 하나 : id keyset 으로 chunkSize 씩 읽고, chunk 마다 영속성 컨텍스트를 비운다. (cancelled 이면 중단)
+    private long scanRange(long fromExclusive, long toInclusive, Specification<Member> spec,
+                           int chunkSize, Consumer<? super Member> callback, AtomicBoolean cancelled) {
+        long lastId = fromExclusive;
+        long rows = 0;
+        while (!cancelled.get()) {
+            List<Member> chunk = em.createQuery(rangeQuery(lastId, toInclusive, spec))
+                    .setMaxResults(chunkSize)
+                    .setHint(QueryHints.HINT_READONLY, true)
+                    .getResultList();
+            for (Member member : chunk) {
+                if (cancelled.get()) {
+                    return rows;
+                }
+                callback.accept(member);
+            }
+            rows += chunk.size();
+            em.clear();
+            if (chunk.size() < chunkSize) {
+                return rows;
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+        return rows;
+    }
+
+    private CriteriaQuery<Member> rangeQuery(long afterId, long toInclusive, Specification<Member> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = cb.createQuery(Member.class);
+        Root<Member> root = query.from(Member.class);
+
+        Predicate where = cb.and(cb.greaterThan(root.get("id"), afterId), cb.lessThanOrEqualTo(root.get("id"), toInclusive));
+        Predicate filter = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            where = cb.and(where, filter);
+        }
+        return query.select(root).where(where).orderBy(cb.asc(root.get("id")));
+    }
+
+    @Getter
+    @ToString
+    public static class Result {
+        private final long rows;
+        private final int partitions;
+        private final long elapsedMillis;
+        private final double rowsPerSecond;
+
+        private Result(long rows, int partitions, long elapsedMillis) {
+            this.rows = rows;
+            this.partitions = partitions;
+            this.elapsedMillis = elapsedMillis;
+            this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+    }
+}
@@ -2,16 +2,19 @@ package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
-import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
-import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 // <확장기능>
 //    - MemberRepositoryCustom 추가함으로써 상송받는다.
 //    - 사용자 정의 리포지토리 구현
@@ -26,6 +29,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>
         , JpaSpecificationExecutor<Member>   //  Specifications (명세) 사용 시 추가함.
 {
 
+    // 쿼리 결과 캐시 리전 (크기/제거 정책은 resources/application.conf)
+    String MEMBER_QUERY_REGION = "member-query-results";
+
     // 구현제(쿼리)를 만들지 않고, 인터페이스만 만들어도 동작이 된다.
     // Username 기본 '=' 조건, Age  '>'  GreaterThan
     // 주로 조건 2~3개까지만 사용한다.
@@ -36,6 +42,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>
     // 이 기능도 실무에서 거의 사용하지 않는다.
     // 3. 쿼리 메소드 : @Query 어노테이션을 사용해서 리파지토리 인터페이스에 쿼리 직접 정의
 //    @Query(name="Member.findByUsername")  // @Query 어노테이션은 있어도 되고, 없어도 된다.
+    // 쿼리 결과 캐시 : 같은 파라미터로 반복 호출 시 DB 대신 캐시에서 id 목록을 가져온다. (엔티티는 2차 캐시에서)
+    @QueryHints(value = { @QueryHint(name = HINT_CACHEABLE, value = "true"),
+                          @QueryHint(name = HINT_CACHE_REGION, value = MEMBER_QUERY_REGION) })
     List<Member> findByUsername(@Param("username") String username);
 
 
@@ -55,12 +64,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>
     // 5. @Query, 값, DTO 조회하기
     //   - 단순히 값 하나를 조회
     @Query("select m.username from Member m")
+    @Transactional(readOnly = true)     // 리포트성 조회 : 세션 readOnly + FlushMode.MANUAL (auto flush 검사 없음)
     List<String> findUsernameList();
 
     // 6. @Query, 값, DTO 조회하기
     //   - DTO로 직접 조회
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
             "from Member m join m.team t")
+    @Transactional(readOnly = true)
     List<MemberDto> findMemberDto();
 
     // 7. 파라미터 바인딩 :
@@ -74,11 +85,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>
     // 8. 파라미터 바인딩 :
     //    - Collection 타입으로 in절 지원
     //    - 실무에서 많이 씀
-    @Query( " select m from Member m " +
-            "  where m.username in :names "
-    )
+    //    - 대량 IN 절 처리를 위해 MemberRepositoryCustom.findByNamesIn 으로 이동함. (파라미터 패딩 + 청크 분할)
+    //@Query( " select m from Member m " +
+    //        "  where m.username in :names "
+    //)
     //List<Member> findByNamesIn(@Param("names") List<String> names);
-    List<Member> findByNamesIn(@Param("names") Collection<String> names); // List보다는 Collection으로 사용을 추천함.
+    //List<Member> findByNamesIn(@Param("names") Collection<String> names); // List보다는 Collection으로 사용을 추천함.
 
 
     // 쿼리가 복잡할 경우 Count 쿼리를 분리하면 성능이 보장된다.
@@ -96,6 +108,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>
             "  set m.age = m.age * 10 " +
             "where m.age >= :age      " )
     int bulkAgeUpdate(@Param("age") int age);
+
+    // 청크 단위 벌크 수정용 : id 범위 [fromId, toId] 만 수정한다. (ChunkedBulkUpdater 참고)
+    @Modifying(clearAutomatically = true)
+    @Query("update Member m           " +
+            "  set m.age = m.age * 10 " +
+            "where m.age >= :age      " +
+            "  and m.id between :fromId and :toId")
+    int bulkAgeUpdateRange(@Param("age") int age, @Param("fromId") long fromId, @Param("toId") long toId);
     // 스프링 Data JPA 벌크 수정하기. =====================================================================================
 
     // 지연로딩 패치조인
@@ -136,13 +156,22 @@ public interface MemberRepository extends JpaRepository<Member, Long>
 
     // JPA Hint ========================================================================================================
     // JPA 쿼리 힌트(SQL 힌트가 아니라 JPA 구현체에게 제공하는 힌트)
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value="true"))
+    @QueryHints(value = { @QueryHint(name = "org.hibernate.readOnly", value="true"),
+                          @QueryHint(name = HINT_CACHEABLE, value = "true"),
+                          @QueryHint(name = HINT_CACHE_REGION, value = MEMBER_QUERY_REGION) })
+    @Transactional(readOnly = true)     // 레플리카 사용 시 읽기 전용 커넥션으로 라우팅 (ReplicaRoutingDataSource)
     Member findReadOnlyByUsername(String username);
 
     @QueryHints(value = { @QueryHint(name = "org.hibernate.readOnly",
             value = "true")},
             forCounting = true)
+    @Transactional(readOnly = true)
     Page<Member> findByUsername(String name, Pageable pageable);
+    // <쿼리 결과 캐시>
+    //   - HINT_CACHEABLE 을 붙인 메소드(findByNamesIn 은 MemberRepositoryImpl)는 (쿼리 + 파라미터) 별로 결과 id 목록을 member-query-results 리전에 캐시한다.
+    //   - Hibernate 가 테이블별 마지막 변경시각(update timestamps)을 관리하므로,
+    //     save() / bulkAgeUpdate() 등으로 member 테이블이 변경되면 캐시된 결과는 자동으로 무효가 된다.
+    //   - 리전 크기를 넘으면 Caffeine 이 사용 빈도 기반으로 제거한다.
     // JPA Hint ========================================================================================================
 
 
@@ -150,20 +179,30 @@ public interface MemberRepository extends JpaRepository<Member, Long>
     // JPA Lock ========================================================================================================
     //    - JPA Lock 사용으로 조회된 데이터 보호하기
     //    - select ... for update 가 자동으로 쿼리 수행된다.
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Member findLockByUsername(String username);
+    //    - 락 대기 시간 제한 (ms) : 경합 시 요청 쓰레드가 무한정 쌓이지 않도록 PessimisticLockException / LockTimeoutException
+    // Member findLockByUsername(String username);
+    //   → MemberRepositoryCustom 으로 옮김 : H2 는 lock.timeout 힌트를 SQL 로 만들지 않으므로 이 조회에서만 세션 LOCK_TIMEOUT 을 바꾼다.
+
+    //    - 작업 큐 : 다른 트랜잭션이 잠근 행은 기다리지 않고 건너뛴다. (for update skip locked)
+    //    - 여러 작업자가 동시에 호출해도 같은 행을 두 번 가져가지 않는다.
+    //    - Hibernate 5 의 H2Dialect 는 skip locked 힌트(lock.timeout = -2)를 SQL 로 만들지 않으므로 네이티브 쿼리로 작성
+    @Query(value = "select * from member where age = ? order by member_id " +
+                   " fetch first ? rows only for update skip locked", nativeQuery = true)
+    List<Member> findWorkQueueByAge(int age, int limit);
 
     // JPA Lock ========================================================================================================
 
 
-    List<UsernameOnly> findProjectionsByUsername(@Param("username") String name);
+    // List<UsernameOnly> findProjectionsByUsername(String name);
+    //   → MemberRepositoryCustom 으로 옮김 : 프록시/SpEL 대신 TupleProjections 구현 클래스로 반환
 
     List<UsernameOnlyDto> findProjectionDtoByUsername(@Param("username") String username);
 
     // <동적 Projections>
     //     - 동적 프로젝션
     //     - 제너릭 타입을 전송해서 사용 가능
-    <T> List <T> findProjectionDtoByUsername(@Param("username") String username, Class<T> type);
+    // <T> List <T> findProjectionDtoByUsername(String username, Class<T> type);
+    //   → MemberRepositoryCustom 으로 옮김 : 타입 분석 결과를 ProjectionPlanCache 에 보관해서 재사용
 
 
     /**
@@ -194,18 +233,29 @@ public interface MemberRepository extends JpaRepository<Member, Long>
      *     - 페이징 활용
      *
      * */
-    @Query(value="select m.member_id as id         " +
-                 "     , m.username  as username   " +
-                 "     , t.name      as teamName   " +
-                 "  from member m left join team t " +
-                 " where username like ?           " +
-                 "   and age between ? and ?       "
-                 , countQuery = "select  count(*)  " +
-                 "  from Member                    " +
-                 " where username like ?           " +
-                 "   and age between ? and ?       "
-                 , nativeQuery = true)
-    Page<MemberProjection> findByNativeProjection(String username, int ageFrom, int ageTo, String username2, int ageFrom2, int ageTo2, Pageable pageable);
+    // Page<MemberProjection> findByNativeProjection(...)
+    //   → MemberRepositoryCustom 으로 옮김 : 네이티브 쿼리 결과(Object[])를 TupleProjections 구현 클래스로 반환
+
+
+    /**
+     * <키셋(Seek) 페이징>
+     *     - OFFSET 대신 마지막으로 읽은 (username, member_id) 다음부터 조회한다.
+     *     - 페이지가 아무리 깊어도 인덱스(idx_member_username_id)를 타고 size + 1 건만 읽는다.
+     *     - OR 조건만으로는 인덱스 시작 위치로 쓸 수 없으므로, 앞에 m.username >= :username 범위 조건을 둔다.
+     *     - Slice 반환 : count 쿼리를 수행하지 않는다.
+     *     - Pageable 은 PageRequest.of(0, size) 로 넘기고, 정렬은 쿼리에 고정한다.
+     * */
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+            "  from Member m left join m.team t " +
+            " order by m.username asc, m.id asc ")
+    Slice<MemberDto> findKeysetFirst(Pageable pageable);
+
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+            "  from Member m left join m.team t " +
+            " where m.username >= :username " +
+            "   and (m.username > :username or m.id > :id) " +
+            " order by m.username asc, m.id asc ")
+    Slice<MemberDto> findKeysetNext(@Param("username") String username, @Param("id") Long id, Pageable pageable);
 
 
 
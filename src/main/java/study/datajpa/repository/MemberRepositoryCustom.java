@@ -1,10 +1,70 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 public interface MemberRepositoryCustom  {
     List<Member> findMemberCustom();
+
+    // 대용량 조회용 : 결과를 List 로 모으지 않고 forward-only 커서로 한 건씩 흘려보낸다.
+    //   - 반드시 트랜잭션 안에서 호출하고, try-with-resources 로 닫아야 커서가 반환된다.
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    // CountMode 지원 페이징 : Pageable 에 CountPageRequest 를 넘기면 count 쿼리 수행 방식을 고를 수 있다.
+    //   - EXACT / CONCURRENT / CACHED(TTL 캐시) / ESTIMATE(테이블 통계 추정치)
+    Page<Member> findPageAll(Pageable pageable);
+
+    // /members 용 : 엔티티 대신 MemberDto 로 바로 조회 (id, username, team.name)
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    Page<Member> findPageByAge(int age, Pageable pageable);
+
+    Page<Member> findPageByUsername(String username, Pageable pageable);
+
+    Page<MemberProjection> findPageByNativeProjection(String username, int ageFrom, int ageTo, Pageable pageable);
+
+    // 기존 네이티브 Projections 조회 : findPageByNativeProjection 으로 위임한다.
+    //   - username2, ageFrom2, ageTo2 는 예전 countQuery 의 위치 파라미터를 채우기 위한 값이었다. 지금은 사용하지 않는다.
+    /** @deprecated {@link #findPageByNativeProjection(String, int, int, Pageable)} 를 사용 */
+    @Deprecated
+    Page<MemberProjection> findByNativeProjection(String username, int ageFrom, int ageTo,
+                                                  String username2, int ageFrom2, int ageTo2, Pageable pageable);
+
+    // StatelessSession 조회 : 영속성 컨텍스트 없이 엔티티 조회 (동일성 보장 없음, 리포트성 조회 전용)
+    List<Member> findAllStateless();
+
+    // 엔티티 스트리밍 조회 : 커서로 fetchSize 만큼씩 읽고, 소비한 회원은 영속성 컨텍스트에서 detach
+    Stream<Member> streamAll(int fetchSize);
+
+    Stream<Member> streamByNativeQuery(String username, int ageFrom, int ageTo, int fetchSize);
+
+    Stream<Member> streamMemberEntityGraph(int fetchSize);
+
+    // 리플렉션 없는 Projections : 프록시/SpEL 대신 TupleProjections 구현 클래스로 반환
+    List<UsernameOnly> findProjectionsByUsername(String username);
+
+    List<NestedClosedProjections> findNestedProjectionsByUsername(String username);
+
+    // 동적 Projections : (조회 메소드, 타입) 별 실행 계획을 ProjectionPlanCache 에 보관해서 재사용
+    //   - DTO 클래스, Closed 인터페이스, UsernameOnly(Open Projection 값을 JPQL 로 계산) 를 지원한다.
+    <T> List<T> findProjectionDtoByUsername(String username, Class<T> type);
+
+    // IN 절 조회 : 파라미터 수를 2의 거듭제곱으로 패딩하고, chunk-size 를 넘으면 나눠서 조회 후 합친다.
+    List<Member> findByNamesIn(Collection<String> names);
+
+    // 대량 입력 : JDBC 배치 insert + batchSize 마다 flush() 후 입력한 회원만 detach() 해서 영속성 컨텍스트 크기를 일정하게 유지
+    //   - 호출 후 넘겨준 엔티티들은 준영속 상태가 된다. (호출한 쪽이 관리하던 다른 엔티티는 영향 없음)
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    // 비관적 락 조회 (select ... for update) : 락 대기 시간을 member.lock.timeout-millis 로 제한한다.
+    //   - javax.persistence.lock.timeout 힌트를 사용한다. H2 방언일 때만 (힌트를 SQL 로 만들지 않으므로) 이 조회 동안 세션의 LOCK_TIMEOUT 을 바꾸고 되돌린다.
+    //   - 호출한 트랜잭션이 끝날 때까지 행 락을 유지한다. (트랜잭션 안에서 호출)
+    Member findLockByUsername(String username);
 }
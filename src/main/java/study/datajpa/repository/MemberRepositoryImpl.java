@@ -1,11 +1,36 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
 
 // 1. MemberRepository 로 해결이 안될 때
 // 2. 복잡한 쿼리를 생성해야 할 때
@@ -19,6 +44,22 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     @PersistenceContext
     private final EntityManager em;
 
+    // 컨텐츠 쿼리 + count 쿼리 조립 (CountMode 에 따라 순차/동시 수행)
+    private final PageCountExecutor pageCountExecutor;
+
+    // 동적 Projections 실행 계획 캐시 ((조회 메소드, 타입) 별 JPQL + 결과 변환)
+    private final ProjectionPlanCache projectionPlanCache;
+
+    private static final String MEMBER = "Member";   // count 캐시 무효화 단위 (엔티티 이름)
+
+    // IN 절 한 번에 넣을 최대 파라미터 수 (2의 거듭제곱 권장 : in_clause_parameter_padding 과 맞춘다)
+    @Value("${member.in-clause.chunk-size:1024}")
+    private int inClauseChunkSize;
+
+    // findLockByUsername 의 락 대기 최대 시간 (ms)
+    @Value("${member.lock.timeout-millis:3000}")
+    private int lockTimeoutMillis;
+
     // @PersistenceContext 사용 시 생성자 생략 가능
 //    public MemberRepositoryImpl(EntityManager em) {
 //        this.em = em;
@@ -30,4 +71,351 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .getResultList();
     }
 
+    // 스트리밍 조회 (NDJSON Export 용)
+    //   - 생성자 프로젝션(DTO)으로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다. (스냅샷/1차캐시 없음)
+    //   - fetchSize 만큼씩 DB에서 가져오므로 힙 사용량이 전체 건수와 무관하게 일정하다.
+    //   - Hibernate 는 getResultStream() 을 ScrollMode.FORWARD_ONLY 커서로 처리한다.
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+                                "  from Member m left join m.team t " +
+                                " order by m.id ", MemberDto.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+
+    // StatelessSession 조회 ============================================================================================
+    //   - 영속성 컨텍스트 자체가 없다. → 스냅샷, 1차 캐시, 동일성 보장, 2차 캐시, 지연로딩, 엔티티 리스너 모두 없음
+    //   - 엔티티 동일성이 필요 없는 리포트성 조회 전용 (같은 팀도 행마다 다른 인스턴스), 팀은 페치 조인으로 함께 조회한다.
+    //   - 현재 트랜잭션의 커넥션을 그대로 사용한다. (readOnly 트랜잭션이면 레플리카)
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findAllStateless() {
+        Session session = em.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            StatelessSession stateless = session.getSessionFactory()
+                    .withStatelessOptions()
+                    .connection(connection)
+                    .openStatelessSession();
+            try {
+                return stateless.createQuery("select m from Member m left join fetch m.team", Member.class)
+                        .setFetchSize(1000)
+                        .list();
+            } finally {
+                stateless.close();
+            }
+        });
+    }
+    // StatelessSession 조회 ============================================================================================
+
+
+    // 엔티티 스트리밍 조회 ==============================================================================================
+    //   - findAll / findByNativeQuery / findMemberEntityGraph 의 Stream 버전
+    //   - fetchSize 만큼씩 커서로 읽고, 소비가 끝난 회원은 영속성 컨텍스트에서 detach 한다. (DetachingStreams)
+    //   - readOnly 힌트 : 스냅샷을 만들지 않는다. → 변경 감지 대상이 아님
+    //   - 호출하는 쪽의 (readOnly) 트랜잭션 안에서 try-with-resources 로 사용해야 커서가 닫힌다.
+    @Override
+    public Stream<Member> streamAll(int fetchSize) {
+        TypedQuery<Member> query = em.createQuery("select m from Member m order by m.id", Member.class);
+        return streamEntities(withTeamGraph(query), fetchSize);
+    }
+
+    @Override
+    public Stream<Member> streamByNativeQuery(String username, int ageFrom, int ageTo, int fetchSize) {
+        Query query = em.createNativeQuery("select * from member where username like ? and age between ? and ? " +
+                                            " order by member_id", Member.class)
+                .setParameter(1, username)
+                .setParameter(2, ageFrom)
+                .setParameter(3, ageTo);
+        return streamEntities(query, fetchSize);
+    }
+
+    @Override
+    public Stream<Member> streamMemberEntityGraph(int fetchSize) {
+        TypedQuery<Member> query = em.createQuery("select m from Member m", Member.class);
+        return streamEntities(withTeamGraph(query), fetchSize);
+    }
+
+    // @EntityGraph(attributePaths = {"team"}) 와 같은 효과
+    private TypedQuery<Member> withTeamGraph(TypedQuery<Member> query) {
+        EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+        graph.addAttributeNodes("team");
+        return query.setHint(QueryHints.HINT_FETCHGRAPH, graph);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<Member> streamEntities(Query query, int fetchSize) {
+        Stream<Member> source = query
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+        return DetachingStreams.detaching(em, source);
+    }
+    // 엔티티 스트리밍 조회 ==============================================================================================
+
+
+    // 리플렉션 없는 Projections =======================================================================================
+    //   - 필요한 컬럼만 Tuple 로 조회해서 TupleProjections 의 구현 클래스에 바로 담는다. (프록시 / SpEL 없음)
+    //   - UsernameOnly 의 Open Projection(@Value) 과 같은 값 : username + ' ' + age
+    @Override
+    public List<UsernameOnly> findProjectionsByUsername(String username) {
+        return em.createQuery("select concat(m.username, ' ', str(m.age)) as username " +
+                                "  from Member m where m.username = :username", Tuple.class)
+                .setParameter("username", username)
+                .getResultList().stream()
+                .map(TupleProjections::usernameOnly)
+                .collect(Collectors.toList());
+    }
+
+    // 동적 Projections 의 NestedClosedProjections 와 같은 값 (팀은 이름만 조회)
+    @Override
+    public List<NestedClosedProjections> findNestedProjectionsByUsername(String username) {
+        return em.createQuery("select m.username as username, t.name as teamName " +
+                                "  from Member m left join m.team t where m.username = :username", Tuple.class)
+                .setParameter("username", username)
+                .getResultList().stream()
+                .map(TupleProjections::nestedClosed)
+                .collect(Collectors.toList());
+    }
+
+    // 동적 Projections (캐시) : 타입 분석은 (조회 메소드, 타입) 별로 한 번만
+    @Override
+    public <T> List<T> findProjectionDtoByUsername(String username, Class<T> type) {
+        return projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, type)
+                .execute(em, "username", username);
+    }
+    // 리플렉션 없는 Projections =======================================================================================
+
+
+    // 대량 IN 절 조회 ==================================================================================================
+    //   - hibernate.query.in_clause_parameter_padding : 파라미터 수를 2의 거듭제곱(1,2,4,8..)으로 맞춰서
+    //     SQL 문자열(=실행계획) 종류를 log2(N) 개로 줄인다. (statement cache 적중률 향상)
+    //   - 중복 이름은 제거하고, chunk-size 를 넘으면 나눠서 조회 후 합친다. (이름이 겹치지 않으므로 결과도 겹치지 않는다)
+    //   - 병렬로 나눠 조회하면 결과 엔티티가 다른 영속성 컨텍스트에 속하게 되므로 호출한 트랜잭션에서 순차 조회한다.
+    @Override
+    public List<Member> findByNamesIn(Collection<String> names) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (distinct.size() <= inClauseChunkSize) {
+            return em.createQuery("select m from Member m where m.username in :names", Member.class)
+                    .setParameter("names", distinct)
+                    .setHint(QueryHints.HINT_CACHEABLE, true)     // 쿼리 결과 캐시 (MemberRepository.MEMBER_QUERY_REGION)
+                    .setHint(QueryHints.HINT_CACHE_REGION, MemberRepository.MEMBER_QUERY_REGION)
+                    .getResultList();
+        }
+
+        List<Member> result = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += inClauseChunkSize) {
+            List<String> chunk = distinct.subList(from, Math.min(from + inClauseChunkSize, distinct.size()));
+            result.addAll(em.createQuery("select m from Member m where m.username in :names", Member.class)
+                    .setParameter("names", chunk)
+                    .getResultList());
+        }
+        return result;
+    }
+    // 대량 IN 절 조회 ==================================================================================================
+
+
+    // CountMode 지원 페이징 ============================================================================================
+    //   - Pageable 로 CountPageRequest 를 넘기면 CountMode 에 따라 count 쿼리를 순차/동시/캐시/추정치로 수행한다.
+    //   - count 캐시는 Member insert/delete 시 MemberCountCacheListener 가 무효화한다.
+    //   - 일반 PageRequest 를 넘기면 스프링 데이터 JPA 와 동일하게 동작한다. (EXACT)
+    @Override
+    public Page<Member> findPageAll(Pageable pageable) {
+        String countQuery = "select count(m) from Member m";
+        return pageCountExecutor.getPage(pageable,
+                () -> paging(em.createQuery(applySorting("select m from Member m", pageable.getSort(), "m"), Member.class), pageable)
+                        .getResultList(),
+                CountKey.unfiltered(MEMBER, countQuery, "member"),
+                () -> em.createQuery(countQuery, Long.class)
+                        .getSingleResult());
+    }
+
+    // /members 용 DTO 직접 조회
+    //   - 엔티티를 만들지 않고 생성자 프로젝션으로 id, username, team.name 만 가져온다. (left join 한 번)
+    //   - 엔티티 생성 / 변경감지 스냅샷 / 1차 캐시 등록 / Team 배치 페치가 모두 생략된다.
+    //   - Sort 는 Member 의 필드(m.xxx) 기준으로 적용된다.
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        String countQuery = "select count(m) from Member m";
+        return pageCountExecutor.getPage(pageable,
+                () -> paging(em.createQuery(applySorting(
+                                "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+                                "  from Member m left join m.team t", pageable.getSort(), "m"), MemberDto.class), pageable)
+                        .getResultList(),
+                CountKey.unfiltered(MEMBER, countQuery, "member"),
+                () -> em.createQuery(countQuery, Long.class)
+                        .getSingleResult());
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable) {
+        String countQuery = "select count(m) from Member m where m.age = :age";
+        return pageCountExecutor.getPage(pageable,
+                () -> paging(em.createQuery(applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class), pageable)
+                        .setParameter("age", age)
+                        .getResultList(),
+                CountKey.of(MEMBER, countQuery, age),
+                () -> em.createQuery(countQuery, Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findPageByUsername(String username, Pageable pageable) {
+        String countQuery = "select count(m) from Member m where m.username = :username";
+        return pageCountExecutor.getPage(pageable,
+                () -> paging(em.createQuery(applySorting("select m from Member m where m.username = :username", pageable.getSort(), "m"), Member.class), pageable)
+                        .setParameter("username", username)
+                        .setHint(QueryHints.HINT_READONLY, true)
+                        .getResultList(),
+                CountKey.of(MEMBER, countQuery, username),
+                () -> em.createQuery(countQuery, Long.class)
+                        .setParameter("username", username)
+                        .getSingleResult());
+    }
+
+    // 네이티브 쿼리 + 인터페이스 Projections (findByNativeProjection 과 같은 결과)
+    //   - 네이티브 쿼리는 Sort 를 신뢰할 수 없으므로 member_id 순으로 고정한다.
+    @Override
+    public Page<MemberProjection> findPageByNativeProjection(String username, int ageFrom, int ageTo, Pageable pageable) {
+        return pageCountExecutor.getPage(pageable,
+                () -> {
+                    Query query = em.createNativeQuery(
+                            "select m.member_id, m.username, t.name         " +
+                            "  from member m left join team t               " +
+                            "    on m.team_id = t.team_id                   " +
+                            " where m.username like ?1                      " +
+                            "   and m.age between ?2 and ?3                 " +
+                            " order by m.member_id                          ")
+                            .setParameter(1, username)
+                            .setParameter(2, ageFrom)
+                            .setParameter(3, ageTo);
+                    if (pageable.isPaged()) {
+                        query.setFirstResult((int) pageable.getOffset())
+                                .setMaxResults(pageable.getPageSize());
+                    }
+                    List<Object[]> rows = query.getResultList();
+                    return rows.stream()
+                            .map(TupleProjections::memberProjection)
+                            .collect(Collectors.toList());
+                },
+                CountKey.of(MEMBER, "findPageByNativeProjection", username, ageFrom, ageTo),
+                () -> ((Number) em.createNativeQuery(
+                            "select count(*) from member m " +
+                            " where m.username like ?1     " +
+                            "   and m.age between ?2 and ?3")
+                            .setParameter(1, username)
+                            .setParameter(2, ageFrom)
+                            .setParameter(3, ageTo)
+                            .getSingleResult()).longValue());
+    }
+
+    @Override
+    @Deprecated
+    public Page<MemberProjection> findByNativeProjection(String username, int ageFrom, int ageTo,
+                                                         String username2, int ageFrom2, int ageTo2, Pageable pageable) {
+        return findPageByNativeProjection(username, ageFrom, ageTo, pageable);
+    }
+
+    private static <T> TypedQuery<T> paging(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+    // CountMode 지원 페이징 ============================================================================================
+
+
+    // 대량 입력 =========================================================================================================
+    //   - hibernate.jdbc.batch_size / order_inserts 설정으로 insert 가 JDBC 배치로 묶여서 전송된다.
+    //   - batchSize 마다 flush() 로 배치를 보내고, 방금 입력한 회원만 detach() 해서 메모리를 일정하게 유지한다.
+    //   - clear() 를 쓰지 않으므로 호출한 쪽 트랜잭션이 이미 관리하던 엔티티는 그대로 영속 상태로 남는다.
+    //   - batchSize 는 hibernate.jdbc.batch_size 의 배수로 맞추는 것이 좋다.
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize 는 1 이상이어야 합니다. batchSize=" + batchSize);
+        }
+        List<Member> batch = new ArrayList<>(batchSize);
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            batch.add(member);
+            count++;
+            if (batch.size() == batchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        return count;
+    }
+
+    private void flushAndDetach(List<Member> batch) {
+        em.flush();
+        batch.forEach(em::detach);
+        batch.clear();
+    }
+    // 대량 입력 =========================================================================================================
+
+
+
+    // 비관적 락 조회 ===================================================================================================
+    //   - 다른 DB 는 javax.persistence.lock.timeout 힌트(for update wait n 등)만으로 대기 시간을 제한한다. (추가 SQL 없음)
+    //   - H2 방언일 때만 세션 LOCK_TIMEOUT 을 바꾼다. (H2Dialect 는 힌트를 SQL 로 만들지 않음)
+    //     세션(커넥션) 단위 설정이므로 다른 쿼리는 H2 기본 LOCK_TIMEOUT 을 그대로 사용한다.
+    //     커넥션은 풀로 돌아가 재사용되므로 조회가 끝나면 (예외가 나도) 이전 값으로 되돌린다.
+    @Override
+    public Member findLockByUsername(String username) {
+        Session session = em.unwrap(Session.class);
+        if (!isH2(session)) {
+            return lockByUsername(username);
+        }
+        int previous = session.doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select lock_timeout()")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+        setLockTimeout(session, lockTimeoutMillis);
+        try {
+            return lockByUsername(username);
+        } finally {
+            setLockTimeout(session, previous);
+        }
+    }
+
+    private Member lockByUsername(String username) {
+        List<Member> result = em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", lockTimeoutMillis)   // for update wait n 을 지원하는 DB 용
+                .getResultList();
+        if (result.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, result.size());
+        }
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private static boolean isH2(Session session) {
+        return ((SessionFactoryImplementor) session.getSessionFactory()).getJdbcServices().getDialect() instanceof H2Dialect;
+    }
+
+    private static void setLockTimeout(Session session, int millis) {
+        session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set lock_timeout " + millis);
+            }
+        });
+    }
+    // 비관적 락 조회 ===================================================================================================
 }
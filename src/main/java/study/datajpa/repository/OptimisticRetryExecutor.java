@@ -0,0 +1,83 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <낙관적 락 재시도>
+ *    - @Version 엔티티(Member)를 동시에 수정하면 늦게 커밋한 쪽이 OptimisticLockException 으로 실패한다.
+ *    - work 를 새로운 트랜잭션에서 수행하고, version 충돌이면 처음(조회)부터 다시 수행한다.
+ *    - 재시도 사이에는 시도 횟수에 비례한 무작위 대기를 둔다. (동시에 다시 충돌하지 않도록)
+ *    - maxAttempts 를 넘으면 마지막 예외를 그대로 던진다.
+ *
+ *    - work 는 반드시 엔티티 조회부터 포함해야 한다. (밖에서 조회한 엔티티는 재시도해도 같은 version)
+ *
+ *    예)
+ *      optimisticRetryExecutor.execute(() -> {
+ *          Member member = memberRepository.findById(id).get();
+ *          member.setAge(member.getAge() + 1);
+ *          return member.getAge();
+ *      });
+ * */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate retryTx;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final LongAdder retries = new LongAdder();   // version 충돌로 다시 수행한 횟수 (누적)
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   @Value("${member.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${member.optimistic-retry.backoff-millis:10}") long backoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts 는 1 이상이어야 합니다. maxAttempts=" + maxAttempts);
+        }
+        this.retryTx = new TransactionTemplate(transactionManager);
+        this.retryTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return retryTx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("version 충돌, 재시도 {}/{} : {}", attempt, maxAttempts, e.getMessage());
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    private void backoff(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <Page 조립기 - 컨텐츠 쿼리 + count 쿼리>
+ *    - CountMode.EXACT      : 스프링 데이터 JPA 와 동일 (순차 수행)
+ *    - CountMode.CONCURRENT : count 쿼리를 제한된(bounded) 쓰레드풀에서 먼저 출발시키고,
+ *                             요청 쓰레드에서는 컨텐츠 쿼리를 수행한 후 두 결과를 합쳐서 Page 를 만든다.
+ *    - CountMode.CACHED     : CountKey 로 CountCache 를 조회하고, 없을 때만 count 쿼리를 수행한다.
+ *    - CountMode.ESTIMATE   : 조건 없는 count(CountKey.unfiltered) 는 테이블 통계 추정치를 사용한다.
+ *
+ *    - count 는 별도 쓰레드의 새로운 읽기전용 트랜잭션(=별도 커넥션)에서 수행되므로,
+ *      호출한 쪽 트랜잭션에서 아직 커밋되지 않은 변경은 count 에 반영되지 않는다.
+ *
+ *    - 커넥션 풀 제약 : 호출한 쪽은 이미 커넥션을 하나 잡고(@Transactional) count 결과를 기다린다.
+ *      count 마다 커넥션이 하나 더 필요하므로, 기다리는 요청이 풀을 모두 차지하면 어떤 count 도 커넥션을 얻지 못한다.
+ *      → 동시에 진행 중인 CONCURRENT count 를 max-in-flight 개로 제한한다. (커넥션 풀 크기의 절반 이하로 설정)
+ *      → 허용 개수를 넘거나 쓰레드풀이 거절하면, 새 트랜잭션 없이 호출 쓰레드의 기존 트랜잭션에서 순차로 count 한다. (EXACT 로 후퇴)
+ *    - 컨텐츠가 페이지 크기보다 적으면 count 결과를 기다리지 않는다. (PageableExecutionUtils)
+ * */
+@Component
+public class PageCountExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;      // 진행 중(대기 + 실행)인 CONCURRENT count 수 제한
+    private final TransactionTemplate countTx;
+    private final CountCache countCache;
+    private final RowCountEstimator rowCountEstimator;
+
+    public PageCountExecutor(PlatformTransactionManager transactionManager,
+                             CountCache countCache,
+                             RowCountEstimator rowCountEstimator,
+                             @Value("${member.page.count-executor.threads:4}") int threads,
+                             @Value("${member.page.count-executor.queue-capacity:100}") int queueCapacity,
+                             @Value("${member.page.count-executor.max-in-flight:4}") int maxInFlight) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "page-count-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.countTx = new TransactionTemplate(transactionManager);
+        this.countTx.setReadOnly(true);
+        this.countTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.countCache = countCache;
+        this.rowCountEstimator = rowCountEstimator;
+    }
+
+    // 캐시 키가 없는 경우 : CACHED / ESTIMATE 는 EXACT 로 동작
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, LongSupplier count) {
+        return getPage(pageable, content, null, count);
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, CountKey key, LongSupplier count) {
+        CountMode mode = CountMode.of(pageable);
+        if (pageable.isUnpaged() || mode == CountMode.EXACT || (key == null && mode != CountMode.CONCURRENT)) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, count);
+        }
+        if (mode == CountMode.CACHED) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> countCache.get(key, count));
+        }
+        if (mode == CountMode.ESTIMATE) {
+            // 추정치는 별도 키(estimated)로 캐시 : 이후 CACHED 요청이 추정치를 정확한 건수로 받지 않도록
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> countCache.get(key.estimated(), estimate(key, count)));
+        }
+
+        // CONCURRENT : count 먼저 출발 (허용 개수를 넘거나 거절되면 호출 트랜잭션에서 순차 수행)
+        CompletableFuture<Long> countFuture = submitCount(count);
+        if (countFuture == null) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, count);
+        }
+
+        List<T> result;
+        try {
+            result = content.get();
+        } catch (RuntimeException e) {
+            countFuture.cancel(false);   // 대기 중일 때만 취소됨 (위 참고)
+            throw e;
+        }
+
+        // 짧은 페이지여서 count 가 필요없었던 경우 : 아직 큐에서 대기 중인 count 만 취소된다.
+        //   이미 실행 중인 count 쿼리는 멈추지 않고 끝까지 수행된 후 결과가 버려진다. (cancel 은 쓰레드를 인터럽트하지 않음)
+        Page<T> page = PageableExecutionUtils.getPage(result, pageable, () -> join(countFuture));
+        countFuture.cancel(false);
+        return page;
+    }
+
+    // 진행 중인 count 가 max-in-flight 개 미만일 때만 쓰레드풀에 맡긴다. (아니면 null)
+    private CompletableFuture<Long> submitCount(LongSupplier count) {
+        if (!inFlight.tryAcquire()) {
+            return null;
+        }
+        // supplyAsync 는 취소된 작업을 건너뛸 때 finally 도 실행하지 않으므로, 허가(permit)는 작업이 끝날 때 직접 반납한다.
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (!future.isDone()) {     // 대기 중에 취소된 count 는 수행하지 않는다.
+                        future.complete(countTx.execute(status -> count.getAsLong()));
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            return future;
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return null;
+        }
+    }
+
+    private LongSupplier estimate(CountKey key, LongSupplier count) {
+        if (!key.isUnfiltered()) {
+            return count;
+        }
+        return () -> {
+            Long estimated = rowCountEstimator.estimate(key.getTable());
+            return estimated != null ? estimated : count.getAsLong();
+        };
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
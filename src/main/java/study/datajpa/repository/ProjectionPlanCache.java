@@ -0,0 +1,171 @@
+package study.datajpa.repository;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <동적 Projections 실행 계획 캐시>
+ *     - 스프링 데이터의 동적 Projections 은 호출마다 타입을 분석한다.
+ *         → DTO 생성자 탐색, 인터페이스 프록시 메타정보(ProjectionInformation), 쿼리 재작성
+ *     - (조회 메소드, 타입) 별로 한 번만 분석해서 JPQL + 결과 변환 함수(ProjectionPlan)를 보관한다.
+ *     - 이미 알고 있는 타입(KNOWN_TYPES)은 기동 시점에 미리 만들어 둔다. (첫 요청 지연 없음)
+ *     - 같은 키를 여러 쓰레드가 동시에 요청해도 분석(resolve)은 한 번만 실행된다. (ConcurrentHashMap.computeIfAbsent)
+ *
+ *     - 계획 종류
+ *         1) TupleProjections 구현 클래스가 있는 인터페이스 : Tuple → 구현 클래스 (프록시 없음)
+ *         2) DTO 클래스 : 생성자 파라미터 이름으로 new 생성자 JPQL 생성
+ *         3) 그 외 Closed 인터페이스 : 필요한 컬럼만 Tuple 로 조회 후 프록시 생성
+ *            (Open Projection 은 엔티티 전체가 필요하므로 지원하지 않는다.)
+ *     - MemberRepository.findProjectionDtoByUsername(username, type) 이 이 캐시를 사용한다.
+ * */
+@Component
+public class ProjectionPlanCache {
+
+    public static final String BY_USERNAME = "findProjectionByUsername";
+
+    // 조회 메소드 → where 절
+    private static final Map<String, String> CONDITIONS = Map.of(BY_USERNAME, "m.username = :username");
+
+    // 기동 시점에 미리 만들어 둘 타입
+    private static final List<Class<?>> KNOWN_TYPES =
+            List.of(UsernameOnly.class, UsernameOnlyDto.class, NestedClosedProjections.class);
+
+    private final ConcurrentMap<PlanKey, ProjectionPlan<?>> plans = new ConcurrentHashMap<>();
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final LongAdder resolutions = new LongAdder();
+
+    @PostConstruct
+    public void warmUp() {
+        for (String method : CONDITIONS.keySet()) {
+            KNOWN_TYPES.forEach(type -> get(method, type));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> ProjectionPlan<T> get(String method, Class<T> type) {
+        return (ProjectionPlan<T>) plans.computeIfAbsent(new PlanKey(method, type), key -> resolve(method, type));
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    // 지금까지 분석(resolve)한 횟수 : 캐시가 동작하면 (조회 메소드, 타입) 개수와 같다.
+    public long resolutions() {
+        return resolutions.sum();
+    }
+
+    // 캐시 없이 매번 분석
+    <T> ProjectionPlan<T> resolve(String method, Class<T> type) {
+        resolutions.increment();
+        String where = CONDITIONS.get(method);
+        if (where == null) {
+            throw new IllegalArgumentException("알 수 없는 조회 메소드 : " + method);
+        }
+
+        if (type == UsernameOnly.class) {
+            return tuplePlan("concat(m.username, ' ', str(m.age)) as username from Member m", where,
+                    tuple -> type.cast(TupleProjections.usernameOnly(tuple)));
+        }
+        if (type == NestedClosedProjections.class) {
+            return tuplePlan("m.username as username, t.name as teamName from Member m left join m.team t", where,
+                    tuple -> type.cast(TupleProjections.nestedClosed(tuple)));
+        }
+        if (!type.isInterface()) {
+            return constructorPlan(type, where);
+        }
+        return closedInterfacePlan(type, where);
+    }
+
+    private <T> ProjectionPlan<T> constructorPlan(Class<T> type, String where) {
+        Constructor<T> constructor = BeanUtils.getResolvableConstructor(type);
+        String[] names = parameterNameDiscoverer.getParameterNames(constructor);
+        if (names == null) {
+            throw new IllegalArgumentException("생성자 파라미터 이름을 알 수 없습니다 : " + type.getName());
+        }
+        String select = Arrays.stream(names).map(name -> "m." + name).collect(Collectors.joining(", "));
+        String jpql = "select new " + type.getName() + "(" + select + ") from Member m where " + where;
+        return new ProjectionPlan<>(jpql, type, Function.identity());
+    }
+
+    private <T> ProjectionPlan<T> closedInterfacePlan(Class<T> type, String where) {
+        ProjectionInformation information = projectionFactory.getProjectionInformation(type);
+        if (!information.isClosed()) {
+            throw new IllegalArgumentException("Open Projection 은 지원하지 않습니다 : " + type.getName());
+        }
+        List<String> properties = information.getInputProperties().stream()
+                .map(PropertyDescriptor::getName)
+                .collect(Collectors.toList());
+        String select = properties.stream().map(name -> "m." + name + " as " + name).collect(Collectors.joining(", "));
+        return tuplePlan(select + " from Member m", where, tuple -> {
+            Map<String, Object> source = new HashMap<>();
+            properties.forEach(name -> source.put(name, tuple.get(name)));
+            return projectionFactory.createProjection(type, source);
+        });
+    }
+
+    private <T> ProjectionPlan<T> tuplePlan(String selectFrom, String where, Function<Tuple, T> mapper) {
+        return new ProjectionPlan<>("select " + selectFrom + " where " + where, Tuple.class, mapper);
+    }
+
+    /**
+     * <ProjectionPlan>
+     *     - 분석이 끝난 JPQL 과 결과 변환 함수, 스레드 간 공유 가능 (불변)
+     * */
+    public static final class ProjectionPlan<T> {
+        private final String jpql;
+        private final Class<?> resultType;
+        private final Function<Object, T> mapper;
+
+        @SuppressWarnings("unchecked")
+        private <R> ProjectionPlan(String jpql, Class<R> resultType, Function<? super R, T> mapper) {
+            this.jpql = jpql;
+            this.resultType = resultType;
+            this.mapper = row -> mapper.apply((R) row);
+        }
+
+        public String getJpql() {
+            return jpql;
+        }
+
+        public List<T> execute(EntityManager em, String name, Object value) {
+            return em.createQuery(jpql, resultType)
+                    .setParameter(name, value)
+                    .getResultList().stream()
+                    .map(mapper)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class PlanKey {
+        private final String method;
+        private final Class<?> type;
+
+        private PlanKey(String method, Class<?> type) {
+            this.method = method;
+            this.type = type;
+        }
+    }
+}
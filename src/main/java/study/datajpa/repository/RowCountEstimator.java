@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <테이블 건수 추정치>
+ *    - H2 가 관리하는 테이블 통계(INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE)를 읽는다.
+ *    - 테이블 전체를 스캔하지 않으므로 조건 없는 전체 건수를 대략적으로 보여줄 때 사용한다.
+ *    - 통계를 얻을 수 없으면 null 을 반환하고, 호출하는 쪽에서 정확한 count 로 대체한다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long estimate(String table) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "select row_count_estimate from information_schema.tables where upper(table_name) = upper(?)",
+                Long.class, table);
+        return result.isEmpty() ? null : result.get(0);
+    }
+}
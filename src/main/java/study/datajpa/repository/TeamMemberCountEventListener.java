@@ -0,0 +1,128 @@
+package study.datajpa.repository;
+
+import org.hibernate.Cache;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <Team.memberCount 증분 유지>
+ *    - Member 입력(+1) / 삭제(-1) / 팀 변경(이전 팀 -1, 새 팀 +1) 을 세션(트랜잭션)별로 팀 id 단위로 모아둔다.
+ *    - 트랜잭션 커밋 직전(flush 이후)에 팀마다 한 번씩 update team set member_count = member_count + ? 를 실행한다.
+ *      → 동시에 여러 트랜잭션이 회원을 입력해도 DB 가 원자적으로 더하므로 값이 어긋나지 않는다.
+ *      → 팀 id 순서로 실행해서 트랜잭션 간 교착(deadlock)을 피한다.
+ *    - 롤백되면 실행되지 않는다.
+ *    - Team 은 2차 캐시 대상이므로, 수정한 팀의 캐시 항목을 실행 직후와 커밋 후에 지운다. (커밋 전 다른 트랜잭션이 다시 올린 옛 값 포함)
+ *    - JPQL 벌크 수정/삭제는 이벤트가 발생하지 않으므로 영향받은 팀만 TeamRepository.recountMemberCounts(teamIds) 로 맞춘다.
+ * */
+public class TeamMemberCountEventListener
+        implements PostInsertEventListener, PostDeleteEventListener, PostUpdateEventListener {
+
+    private static final String UPDATE_SQL = "update team set member_count = member_count + ? where team_id = ?";
+
+    private final Map<EventSource, Map<Long, Long>> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            add(event.getSession(), teamId(((Member) event.getEntity()).getTeam()), 1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            int index = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+            add(event.getSession(), teamId(event.getDeletedState()[index]), -1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return;
+        }
+        int index = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+        Long oldTeamId = teamId(event.getOldState()[index]);
+        Long newTeamId = teamId(event.getState()[index]);
+        if (oldTeamId == null ? newTeamId != null : !oldTeamId.equals(newTeamId)) {
+            add(event.getSession(), oldTeamId, -1);
+            add(event.getSession(), newTeamId, 1);
+        }
+    }
+
+    private void add(EventSource session, Long teamId, long delta) {
+        if (teamId == null) {
+            return;
+        }
+        Map<Long, Long> deltas = pending.computeIfAbsent(session, s -> {
+            Map<Long, Long> created = new TreeMap<>();
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this::completed);
+            return created;
+        });
+        deltas.merge(teamId, delta, Long::sum);
+    }
+
+    private void apply(SessionImplementor session) {
+        Map<Long, Long> deltas = pending.get(session);
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_SQL)) {
+                for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+                    if (entry.getValue() != 0) {
+                        ps.setLong(1, entry.getValue());
+                        ps.setLong(2, entry.getKey());
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        });
+        evict(session, deltas);
+    }
+
+    private void completed(boolean success, SharedSessionContractImplementor session) {
+        Map<Long, Long> deltas = pending.remove(session);
+        if (success && deltas != null) {
+            evict(session, deltas);
+        }
+    }
+
+    private static void evict(SharedSessionContractImplementor session, Map<Long, Long> deltas) {
+        Cache cache = session.getFactory().getCache();
+        deltas.forEach((teamId, delta) -> {
+            if (delta != 0) {
+                cache.evictEntityData(Team.class, teamId);
+            }
+        });
+    }
+
+    private static Long teamId(Object team) {
+        return team == null ? null : ((Team) team).getId();   // 프록시여도 id 조회는 초기화하지 않는다.
+    }
+
+    // PostCommit 이 아닌 트랜잭션 안에서 처리한다.
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
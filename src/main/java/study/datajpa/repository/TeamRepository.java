@@ -1,8 +1,26 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import study.datajpa.entity.Team;
 
+import java.util.Collection;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+    // 팀 회원 수 조회 : team 테이블의 member_count 만 읽는다. (member 테이블 조회 없음)
+    @Query("select t.memberCount from Team t where t.id = :teamId")
+    Long findMemberCountById(@Param("teamId") Long teamId);
+
+    // 팀 회원 수 재계산 : 벌크 삭제/수정 등 엔티티 이벤트를 거치지 않은 변경 후에 맞춰준다.
+    @Modifying(clearAutomatically = true)
+    @Query("update Team t set t.memberCount = (select count(m) from Member m where m.team = t)")
+    int recountMemberCounts();
+
+    // 지정한 팀만 재계산 : 벌크 작업의 대상 팀을 알 때는 전체 재계산 대신 사용한다.
+    @Modifying(clearAutomatically = true)
+    @Query("update Team t set t.memberCount = (select count(m) from Member m where m.team = t) where t.id in :teamIds")
+    int recountMemberCounts(@Param("teamIds") Collection<Long> teamIds);
 }
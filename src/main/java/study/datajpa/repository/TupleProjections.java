@@ -0,0 +1,108 @@
+package study.datajpa.repository;
+
+import javax.persistence.Tuple;
+
+/**
+ * <리플렉션 없는 Projections 구현체>
+ *    - 스프링 데이터의 인터페이스 Projections 는 행마다 프록시 + 메소드 인터셉터(+ Open Projection 은 SpEL 평가)를 만든다.
+ *    - 여기서는 인터페이스를 직접 구현한 작은 final 클래스에 조회 결과(Tuple / Object[])를 바로 담는다.
+ *    - UsernameOnly 의 @Value("#{target.username + ' ' + target.age}") 는 JPQL concat 으로 DB 에서 계산해서 받는다.
+ *      → 엔티티 전체를 조회하지 않아도 된다.
+ *
+ *    - Tuple 별칭(alias) 은 MemberRepositoryImpl 의 조회 쿼리와 맞춰야 한다.
+ * */
+public final class TupleProjections {
+
+    private TupleProjections() {
+    }
+
+    // select concat(m.username, ' ', str(m.age)) as username ...
+    public static UsernameOnly usernameOnly(Tuple tuple) {
+        return new UsernameOnlyRow(tuple.get("username", String.class));
+    }
+
+    // select m.username as username, t.name as teamName ... left join m.team t
+    public static NestedClosedProjections nestedClosed(Tuple tuple) {
+        String teamName = tuple.get("teamName", String.class);
+        return new NestedClosedRow(tuple.get("username", String.class),
+                teamName == null ? null : new TeamInfoRow(teamName));
+    }
+
+    // select m.member_id, m.username, t.name ... (네이티브 쿼리, 컬럼 순서 기준)
+    public static MemberProjection memberProjection(Object[] row) {
+        return new MemberProjectionRow(((Number) row[0]).longValue(), (String) row[1], (String) row[2]);
+    }
+
+    static final class UsernameOnlyRow implements UsernameOnly {
+        private final String username;
+
+        UsernameOnlyRow(String username) {
+            this.username = username;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+    }
+
+    static final class NestedClosedRow implements NestedClosedProjections {
+        private final String username;
+        private final TeamInfo team;
+
+        NestedClosedRow(String username, TeamInfo team) {
+            this.username = username;
+            this.team = team;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public TeamInfo getTeam() {
+            return team;
+        }
+    }
+
+    static final class TeamInfoRow implements NestedClosedProjections.TeamInfo {
+        private final String name;
+
+        TeamInfoRow(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    static final class MemberProjectionRow implements MemberProjection {
+        private final Long id;
+        private final String username;
+        private final String teamName;
+
+        MemberProjectionRow(Long id, String username, String teamName) {
+            this.id = id;
+            this.username = username;
+            this.teamName = teamName;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getTeamName() {
+            return teamName;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 로컬 H2 메모리 DB 3개(primary, replica 2개)로 라우팅만 확인한다. (스프링 컨텍스트 없음)
+ * 각 DB 의 server_name 테이블에 자기 이름을 넣어 두고, 어느 DB 에서 읽었는지 확인한다.
+ * */
+class ReplicaRoutingDataSourceTest {
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate writeTx;
+    TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica1 = h2("replica1");
+        DataSource replica2 = h2("replica2");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(replica1, replica2)));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @Test
+    public void routeByTransactionReadOnly() {
+        String write = writeTx.execute(status -> serverName());
+        String noTx = serverName();
+        Set<String> reads = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(readOnlyTx.execute(status -> serverName()));
+        }
+
+        Assertions.assertThat(write).isEqualTo("primary");
+        Assertions.assertThat(noTx).isEqualTo("primary");
+        Assertions.assertThat(reads).containsExactlyInAnyOrder("replica1", "replica2");   // round-robin
+    }
+
+    @Test
+    public void sameReplicaWithinTransaction() {
+        List<String> names = readOnlyTx.execute(status -> List.of(serverName(), serverName(), serverName()));
+
+        Assertions.assertThat(names).hasSize(3);
+        Assertions.assertThat(new HashSet<>(names)).hasSize(1);
+    }
+
+    @Test
+    public void withoutReplicasEverythingGoesToPrimary() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(h2("primary"), List.of()));
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.setReadOnly(true);
+
+        String name = tx.execute(status -> new JdbcTemplate(dataSource)
+                .queryForObject("select name from server_name", String.class));
+
+        Assertions.assertThat(name).isEqualTo("primary");
+    }
+
+    private String serverName() {
+        return jdbcTemplate.queryForObject("select name from server_name", String.class);
+    }
+
+    private DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table if not exists server_name (name varchar(20))");
+        template.update("delete from server_name");
+        template.update("insert into server_name values (?)", name);
+        return dataSource;
+    }
+}
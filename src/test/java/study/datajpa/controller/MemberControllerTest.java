@@ -0,0 +1,121 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    /**
+     * <키셋 페이징 - /members/keyset>
+     *     - 커서 없이 첫 페이지(findKeysetFirst) 를 받고, 응답의 nextCursor 로 끝까지 따라간다.
+     *     - username 을 '!!' 로 시작하게 해서 다른 테스트가 커밋한 회원보다 앞에 정렬되게 한다.
+     * */
+    @Test
+    public void keysetPagingThroughEndpoint() throws Exception {
+        // Given : 같은 username 을 일부러 중복시킨다. (username 이 같으면 member_id 순)
+        String prefix = "!!Keyset_" + System.nanoTime() + "_";
+        Team team = teamRepository.save(new Team("KeysetEndpointTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(new Member(prefix + (i % 5), 10 + i, team));
+        }
+        memberRepository.saveAllBatched(members, 100);
+
+        try {
+            // When : 이 테스트의 회원을 모두 지나갈 때까지 nextCursor 를 따라간다.
+            List<JsonNode> all = new ArrayList<>();
+            int pages = 0;
+            String cursor = null;
+            while (true) {
+                MockHttpServletRequestBuilder request = get("/members/keyset").param("size", "10");
+                if (cursor != null) {
+                    request.param("cursor", cursor);
+                }
+                JsonNode page = read(request);
+                pages++;
+
+                JsonNode content = page.get("content");
+                Assertions.assertThat(content.size()).isLessThanOrEqualTo(10);
+                String lastUsername = null;
+                for (JsonNode dto : content) {
+                    lastUsername = dto.get("username").asText();
+                    if (lastUsername.startsWith(prefix)) {
+                        all.add(dto);
+                    }
+                }
+
+                // Then : 다음 페이지가 있을 때만 nextCursor 가 있다.
+                Assertions.assertThat(page.get("hasNext").asBoolean()).isEqualTo(!page.get("nextCursor").isNull());
+                if (!page.get("hasNext").asBoolean() || lastUsername.compareTo(prefix + "~") > 0) {
+                    break;
+                }
+                cursor = page.get("nextCursor").asText();
+            }
+
+            // Then : 25건을 빠짐없이, 중복 없이, (username, id) 순서로 받는다.
+            Assertions.assertThat(pages).isGreaterThanOrEqualTo(3);
+            Assertions.assertThat(all).hasSize(25);
+            Assertions.assertThat(all).extracting(dto -> dto.get("id").asLong()).doesNotHaveDuplicates();
+            Assertions.assertThat(all).extracting(dto -> dto.get("username").asText()).isSorted();
+            for (int i = 1; i < all.size(); i++) {
+                if (all.get(i).get("username").asText().equals(all.get(i - 1).get("username").asText())) {
+                    Assertions.assertThat(all.get(i).get("id").asLong()).isGreaterThan(all.get(i - 1).get("id").asLong());
+                }
+            }
+            Assertions.assertThat(all).extracting(dto -> dto.get("teamName").asText()).containsOnly("KeysetEndpointTeam");
+        } finally {
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test   // size 는 1 ~ 2000 으로 제한된다.
+    public void keysetSizeIsClamped() throws Exception {
+        JsonNode zero = read(get("/members/keyset").param("size", "0"));
+        JsonNode negative = read(get("/members/keyset").param("size", "-3"));
+        JsonNode huge = read(get("/members/keyset").param("size", "100000"));
+
+        Assertions.assertThat(zero.get("content").size()).isEqualTo(1);
+        Assertions.assertThat(negative.get("content").size()).isEqualTo(1);
+        Assertions.assertThat(huge.get("content").size()).isBetween(1, 2000);
+    }
+
+    @Test   // 잘못된 커서는 500 이 아니라 400
+    public void keysetBadCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/members/keyset").param("cursor", "!!not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("cursor", "bm90LWEtbnVtYmVyOkFuYWtpbg"))   // "not-a-number:Anakin"
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
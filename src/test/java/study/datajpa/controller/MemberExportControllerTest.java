@@ -0,0 +1,97 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberExportControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    /**
+     * <NDJSON Export - /members/export>
+     *     - 비동기(StreamingResponseBody) 요청이므로 asyncDispatch 후 응답 본문을 확인한다.
+     *     - 한 줄에 MemberDto JSON 하나, member_id 오름차순
+     *     - 팀이 있는 회원은 teamName 이 팀 이름, 팀이 없는 회원은 null (left join)
+     * */
+    @Test
+    public void exportWritesOneJsonObjectPerLine() throws Exception {
+        // Given
+        String prefix = "Export_" + System.nanoTime() + "_";
+        Team team = teamRepository.save(new Team("ExportTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            members.add(new Member(prefix + "team_" + i, 20 + i, team));
+            members.add(new Member(prefix + "none_" + i, 30 + i, null));
+        }
+        memberRepository.saveAllBatched(members, 100);
+
+        try {
+            // When
+            MvcResult started = mockMvc.perform(get("/members/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String body = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            // Then : 모든 줄이 JSON 객체 하나, id 오름차순
+            Assertions.assertThat(body).endsWith("\n");
+            String[] lines = body.split("\n");
+            Map<String, JsonNode> exported = new HashMap<>();
+            long previousId = Long.MIN_VALUE;
+            for (String line : lines) {
+                JsonNode dto = objectMapper.readTree(line);
+                Assertions.assertThat(dto.isObject()).isTrue();
+                Assertions.assertThat(dto.get("id").asLong()).isGreaterThan(previousId);
+                previousId = dto.get("id").asLong();
+                if (dto.get("username").asText().startsWith(prefix)) {
+                    exported.put(dto.get("username").asText(), dto);
+                }
+            }
+
+            // Then : 이 테스트가 입력한 회원 6명, 팀 이름은 팀이 있을 때만
+            Assertions.assertThat(exported).hasSize(6);
+            for (Member member : members) {
+                JsonNode dto = exported.get(member.getUsername());
+                Assertions.assertThat(dto.get("id").asLong()).isEqualTo(member.getId());
+                if (member.getUsername().contains("_team_")) {
+                    Assertions.assertThat(dto.get("teamName").asText()).isEqualTo("ExportTeam");
+                } else {
+                    Assertions.assertThat(dto.get("teamName").isNull()).isTrue();
+                }
+            }
+        } finally {
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package study.datajpa.entity;
 
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.monitor.SqlRequestStats;
 import study.datajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
@@ -143,4 +148,52 @@ class MemberTest {
                 diff.toHours(), diff.toMinutes(), diff.getSeconds(), diff.toMillis(), diff.getNano());
     }
 
-}
\ No newline at end of file
+    @Test   // N 번째 회원을 팀에 추가해도 기존 N-1 명의 회원을 조회(select)하지 않는다.
+    public void addMemberWithoutLoadingTeamMembers() {
+        // Given
+        Team team = new Team("BIG TEAM");
+        em.persist(team);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("Member" + i, 20, team));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        Team findTeam = em.find(Team.class, team.getId());
+        statistics.clear();
+
+        // When
+        Member newMember = new Member("Member100", 20, findTeam);
+        em.persist(newMember);
+        em.flush();
+
+        // Then
+        Assertions.assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        Assertions.assertThat(statistics.getCollectionLoadCount()).isZero();
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test   // pooled-lo : 회원 100명 입력 시 member_seq 호출은 increment_size(50) 건당 최대 1번
+    public void pooledSequenceCallsPerIncrementSize() {
+        // Given
+        int rows = 100;
+        int incrementSize = PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE;   // application.yml 의 datajpa.id.increment_size 와 같다.
+
+        // When : 이 쓰레드에서 실행된 SQL 을 p6spy 로 집계한다.
+        SqlRequestStats.start();
+        SqlRequestStats stats;
+        try {
+            for (int i = 0; i < rows; i++) {
+                em.persist(new Member("Pooled" + i, 20, null));
+            }
+            em.flush();
+        } finally {
+            stats = SqlRequestStats.end();
+        }
+
+        // Then : 이전 테스트에서 받아 둔 범위가 남아 있으면 더 적게 호출된다.
+        Assertions.assertThat(stats.countOf("member_seq")).isBetween(1, (rows + incrementSize - 1) / incrementSize);
+    }
+}
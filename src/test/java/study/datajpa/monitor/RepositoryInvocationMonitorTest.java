@@ -0,0 +1,77 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Map;
+
+@SpringBootTest(properties = "member.repository-monitor.slow-threshold-millis=0")   // 모든 호출을 느린 호출로 기록
+@Transactional
+class RepositoryInvocationMonitorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired RepositoryInvocationMonitor repositoryInvocationMonitor;
+    @Autowired RepositoryMetricsEndpoint repositoryMetricsEndpoint;
+
+    @Test
+    public void recordRowsAndSlowInvocations() {
+        // Given
+        memberRepository.save(new Member("MonitorAnakin", 10, null));
+        memberRepository.save(new Member("MonitorAnakin", 20, null));
+
+        // When
+        List<Member> result = memberRepository.findByUsernameAndAgeGreaterThan("MonitorAnakin", 5);
+
+        // Then
+        DistributionSummary rows = meterRegistry.find("spring.data.repository.rows")
+                .tag("repository", "MemberRepository")
+                .tag("method", "findByUsernameAndAgeGreaterThan")
+                .summary();
+        Assertions.assertThat(rows).isNotNull();
+        Assertions.assertThat(rows.max()).isEqualTo(result.size());
+
+        Assertions.assertThat(repositoryInvocationMonitor.slowInvocations())
+                .anySatisfy(slow -> {
+                    Assertions.assertThat(slow.getMethod()).isEqualTo("MemberRepository.findByUsernameAndAgeGreaterThan");
+                    Assertions.assertThat(slow.getArgs()).containsExactly("MonitorAnakin", "5");
+                });
+
+        Map<String, Object> dump = repositoryMetricsEndpoint.dump();
+        Assertions.assertThat(dump).containsKeys("methods", "slow");
+    }
+
+    @Test   // @Modifying 벌크 수정은 반환값(수정 건수)을 rows 로 기록한다. (1건이 아님)
+    public void recordModifiedRowsForBulkUpdates() {
+        // Given
+        Member member1 = memberRepository.save(new Member("MonitorBulkAnakin", 10, null));
+        Member member2 = memberRepository.save(new Member("MonitorBulkAnakin", 20, null));
+        memberRepository.flush();
+        long fromId = Math.min(member1.getId(), member2.getId());
+        long toId = Math.max(member1.getId(), member2.getId());
+        double before = totalRows("bulkAgeUpdateRange");
+
+        // When
+        int updated = memberRepository.bulkAgeUpdateRange(0, fromId, toId);
+
+        // Then
+        Assertions.assertThat(updated).isGreaterThanOrEqualTo(2);
+        Assertions.assertThat(totalRows("bulkAgeUpdateRange") - before).isEqualTo(updated);
+    }
+
+    private double totalRows(String method) {
+        DistributionSummary rows = meterRegistry.find("spring.data.repository.rows")
+                .tag("repository", "MemberRepository")
+                .tag("method", method)
+                .summary();
+        return rows == null ? 0 : rows.totalAmount();
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.monitor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SampledSqlLoggerTest {
+
+    @Test   // 1/N 샘플링 + 느린 SQL 만 큐에 넣고, 파라미터 포맷팅은 느린 SQL 만 한다.
+    public void sampleAndSlowOnly() {
+        SampledSqlLogger logger = new SampledSqlLogger(10, 100, 100);   // 로그 쓰레드는 시작하지 않는다.
+        AtomicInteger formatted = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            logger.record("select * from member where member_id = ?", () -> {
+                formatted.incrementAndGet();
+                return "select * from member where member_id = 1";
+            }, 1_000);
+        }
+        logger.record("select * from member", () -> {
+            formatted.incrementAndGet();
+            return "select * from member";
+        }, 200_000_000);
+
+        Assertions.assertThat(logger.stats().get("executed")).isEqualTo(101);
+        Assertions.assertThat(logger.stats().get("enqueued")).isEqualTo(11);   // 샘플 10 + 느린 SQL 1
+        Assertions.assertThat(formatted.get()).isEqualTo(1);
+    }
+
+    @Test   // 큐가 가득 차면 기다리지 않고 버린다.
+    public void dropWhenQueueIsFull() {
+        SampledSqlLogger logger = new SampledSqlLogger(1, 100, 5);
+
+        for (int i = 0; i < 20; i++) {
+            logger.record("select 1", () -> "select 1", 1_000);
+        }
+
+        Assertions.assertThat(logger.stats().get("enqueued")).isEqualTo(5);
+        Assertions.assertThat(logger.stats().get("dropped")).isEqualTo(15);
+    }
+
+    @Test   // 여러 쓰레드가 동시에 실행해도 정확히 N 건 중 1건만 샘플링된다.
+    public void sampleExactlyUnderConcurrency() throws Exception {
+        int threads = 8;
+        int perThread = 10_000;
+        SampledSqlLogger logger = new SampledSqlLogger(100, 100, threads * perThread);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        logger.record("select 1", () -> "select 1", 1_000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertThat(logger.stats().get("executed")).isEqualTo(threads * perThread);
+        Assertions.assertThat(logger.stats().get("enqueued")).isEqualTo(threads * perThread / 100);
+    }
+}
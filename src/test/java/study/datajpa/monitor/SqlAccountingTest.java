@@ -0,0 +1,124 @@
+package study.datajpa.monitor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlAccountingTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired SqlBudget sqlBudget;
+    @Autowired SqlEndpointSummary sqlEndpointSummary;
+
+    @Test   // 파라미터 값, 리터럴, IN 목록 길이가 달라도 같은 shape
+    public void shapeOf() {
+        Assertions.assertThat(SqlRequestStats.shapeOf("select * from member where member_id in (?, ?, ?)"))
+                .isEqualTo(SqlRequestStats.shapeOf("select *  from member\n where member_id in (?)"));
+        Assertions.assertThat(SqlRequestStats.shapeOf("select * from member where username = 'Anakin' and age = 10"))
+                .isEqualTo("select * from member where username = ? and age = ?");
+    }
+
+    @Test   // 값만 다른 같은 쿼리가 반복되면 예산(max-repeated) 초과로 잡힌다.
+    @Transactional
+    public void detectRepeatedShape() {
+        // Given
+        Team team = new Team("SqlTeam");
+        em.persist(team);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Member member = new Member("SqlAnakin_" + i, 20, team);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        // When
+        SqlRequestStats.start();
+        for (Long id : ids) {
+            em.createQuery("select m from Member m where m.id = :id", Member.class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+        }
+        SqlRequestStats stats = SqlRequestStats.end();
+
+        // Then
+        Assertions.assertThat(stats.getStatements()).isGreaterThanOrEqualTo(10);
+        Assertions.assertThat(stats.getWorstShapeCount()).isGreaterThanOrEqualTo(10);
+        Assertions.assertThat(sqlBudget.violations(stats)).isNotEmpty();
+    }
+
+    @Test   // FAIL 모드 : 예산을 넘는 순간 예외
+    public void failModeThrows() {
+        SqlBudget budget = new SqlBudget(1, 0, "fail");
+        SqlRequestStats stats = new SqlRequestStats();
+        stats.record("select 1", 1_000);
+        budget.enforce(stats);
+
+        stats.record("select 2", 1_000);
+        Assertions.assertThatThrownBy(() -> budget.enforce(stats))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test   // MemberController 요청은 엔드포인트별로 요약된다.
+    public void summaryPerEndpoint() throws Exception {
+        sqlEndpointSummary.clear();
+
+        mockMvc.perform(get("/members").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk());
+
+        Assertions.assertThat(sqlEndpointSummary.snapshot()).containsKey("GET /members");
+        Assertions.assertThat(sqlEndpointSummary.snapshot().get("GET /members").get("requests")).isEqualTo(1L);
+    }
+
+    @Value("${member.sql-budget.max-statements}") int maxStatements;
+
+    @Test   // MemberController 목록 요청은 SQL 예산 안에서 처리되고, 요청이 끝나면 집계가 쓰레드에 남지 않는다.
+    public void memberListWithinBudget() throws Exception {
+        sqlEndpointSummary.clear();
+
+        mockMvc.perform(get("/members").param("page", "0").param("size", "20"))
+                .andExpect(status().isOk());
+
+        Map<String, Object> summary = sqlEndpointSummary.snapshot().get("GET /members");
+        Assertions.assertThat(summary.get("budgetViolations")).isEqualTo(0L);
+        Assertions.assertThat((Long) summary.get("maxStatements")).isPositive().isLessThanOrEqualTo(maxStatements);
+        Assertions.assertThat(SqlRequestStats.current()).isNull();
+    }
+
+    @Test   // 비동기 요청(/members/export) : 요청 쓰레드에서 집계를 끝내고, 재디스패치는 다시 집계하지 않는다.
+    public void asyncExportIsRecordedOnce() throws Exception {
+        sqlEndpointSummary.clear();
+
+        MvcResult result = mockMvc.perform(get("/members/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Assertions.assertThat(SqlRequestStats.current()).isNull();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        Assertions.assertThat(sqlEndpointSummary.snapshot().get("GET /members/export").get("requests")).isEqualTo(1L);
+        Assertions.assertThat(SqlRequestStats.current()).isNull();
+    }
+}
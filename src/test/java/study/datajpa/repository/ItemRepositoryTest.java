@@ -1,15 +1,28 @@
 package study.datajpa.repository;
 
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Item;
 
-@SpringBootTest
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest(properties = "item.id-index.enabled=true")   // id 인덱스는 기본값이 꺼짐
 class ItemRepositoryTest {
 
     @Autowired ItemRepository itemRepository;
+    @Autowired ItemIdIndex itemIdIndex;
+    @Autowired EntityManagerFactory emf;
+    @Autowired PlatformTransactionManager transactionManager;
 
     @Test
     @Rollback(false)
@@ -20,4 +33,68 @@ class ItemRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test   // 대량 Upsert : 없으면 입력, 있으면 이름만 수정 (created_date 유지)
+    public void upsertAll() {
+        // Given
+        LocalDateTime created = LocalDateTime.of(2023, 5, 26, 0, 0);
+        itemRepository.upsertAll(Arrays.asList(new Item("UPSERT_1", "Galaxy S23", created),
+                                               new Item("UPSERT_2", "Galaxy Tab", created)), 100);
+
+        // When
+        List<Item> feed = Arrays.asList(new Item("UPSERT_1", "Galaxy S24", LocalDateTime.now()),
+                                        new Item("UPSERT_3", "Galaxy Book", null));
+        int count = itemRepository.upsertAll(feed, 1);
+
+        // Then
+        Item updated = itemRepository.findById("UPSERT_1").get();
+        Assertions.assertThat(count).isEqualTo(2);
+        Assertions.assertThat(updated.getName()).isEqualTo("Galaxy S24");
+        Assertions.assertThat(updated.getCreatedDate()).isEqualTo(created);
+        Assertions.assertThat(itemRepository.findById("UPSERT_3")).isPresent();
+    }
+
+    @Test   // createdDate 가 채워진 새 Item 도 id 인덱스에 없으면 merge()의 select 없이 입력된다.
+    public void saveWithoutSelectWhenAbsent() {
+        // Given
+        String id = "BLOOM_" + System.nanoTime();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        Assertions.assertThat(itemIdIndex.mightContain(id)).isFalse();
+        statistics.clear();
+
+        // When
+        itemRepository.save(new Item(id, "Galaxy Fold", LocalDateTime.now()));
+
+        // Then : insert 1건만 실행된다.
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(itemIdIndex.mightContain(id)).isTrue();
+        itemRepository.deleteById(id);
+    }
+
+    @Test   // flush 전에 같은 id 의 다른 인스턴스를 다시 저장해도 (saveAll 포함) persist() 중복 예외 없이 병합된다.
+    @Transactional
+    public void saveAllSameIdBeforeFlush() {
+        // Given
+        String id = "BLOOM_" + System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        itemRepository.saveAll(Arrays.asList(new Item(id, "Galaxy Fold", now),
+                                             new Item(id, "Galaxy Flip", now)));
+        itemRepository.flush();
+
+        // Then
+        Assertions.assertThat(itemRepository.findById(id)).get().extracting(Item::getName).isEqualTo("Galaxy Flip");
+    }
+
+    @Test   // 꺼져 있으면(기본값) 모든 id 를 "있을 수도 있음" 으로 본다. → 항상 merge(), 다른 곳에서 입력된 id 도 안전
+    public void disabledIndexAlwaysMightContain() {
+        ItemIdIndex disabled = new ItemIdIndex(transactionManager, 1000, 0.01, false);
+        disabled.rebuild();
+        disabled.put("BLOOM_DISABLED");
+
+        Assertions.assertThat(disabled.mightContain("BLOOM_" + System.nanoTime())).isTrue();
+        Assertions.assertThat(disabled.stats()).containsEntry("enabled", false).containsEntry("insertions", 0L);
+    }
+}
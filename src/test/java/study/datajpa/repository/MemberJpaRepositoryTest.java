@@ -5,13 +5,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 //@RunAs(SpringRunner.class)   => JUnit5 사용 시 필요 없어짐
 @SpringBootTest
@@ -19,6 +30,10 @@ import java.util.List;
 class MemberJpaRepositoryTest {
     @Autowired MemberJpaRepository memberJpaRepository;
     @Autowired TeamJpaRepository teamJpaRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired ChunkedBulkUpdater chunkedBulkUpdater;
+    @Autowired MemberPartitionScanner memberPartitionScanner;
     @PersistenceContext EntityManager em;
 
     @Test
@@ -149,4 +164,141 @@ class MemberJpaRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test   // 청크 단위 벌크 수정 : 청크마다 커밋, 같은 jobName 으로 다시 실행하면 이미 끝난 범위는 건너뛰고, reset 후에는 다시 수행한다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testChunkedBulkUpdate() {
+        // Given : 이 테스트가 입력한 회원의 id 범위만 수정한다.
+        Team team = teamRepository.save(new Team("ChunkTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i=0; i<30; i++){
+            members.add(new Member("Chunk_Anakin_"+i, 10+i, team));
+        }
+        memberRepository.saveAllBatched(members, 10);
+        long fromId = members.stream().mapToLong(Member::getId).min().getAsLong();
+        long toId = members.stream().mapToLong(Member::getId).max().getAsLong();
+        String jobName = "bulkAgePlus-15-" + System.nanoTime();
+        ChunkedBulkUpdater.RangeUpdate update = (from, to) -> memberJpaRepository.bulkAgePlusRange(15, from, to);
+
+        try {
+            //when
+            ChunkedBulkUpdater.Result first = chunkedBulkUpdater.run(jobName, fromId, toId, 7, update);
+            ChunkedBulkUpdater.Result resumed = chunkedBulkUpdater.run(jobName, fromId, toId, 7, update);
+            boolean reset = chunkedBulkUpdater.reset(jobName);
+            ChunkedBulkUpdater.Result rerun = chunkedBulkUpdater.run(jobName, fromId, toId, 7, update);
+            Throwable otherRange = Assertions.catchThrowable(() -> chunkedBulkUpdater.run(jobName, fromId, toId + 7, 7, update));
+
+            //then
+            Assertions.assertThat(first.getUpdatedRows()).isEqualTo(6);     // 10 ~ 15 살
+            Assertions.assertThat(first.getChunks()).isEqualTo((int) ((toId - fromId) / 7 + 1));
+            Assertions.assertThat(resumed.getUpdatedRows()).isZero();
+            Assertions.assertThat(resumed.getChunks()).isZero();
+            Assertions.assertThat(reset).isTrue();
+            Assertions.assertThat(rerun.getChunks()).isEqualTo(first.getChunks());
+            Assertions.assertThat(rerun.getUpdatedRows()).isZero();           // 이미 1000 살 이상
+            Assertions.assertThat(otherRange).isInstanceOf(IllegalStateException.class);    // 저장된 범위와 다르면 거부
+        } finally {
+            chunkedBulkUpdater.reset(jobName);
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test   // 같은 jobName 을 동시에 실행해도 청크마다 진행 상태 행을 잠그므로 모든 행을 정확히 한 번만 수정한다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testChunkedBulkUpdateConcurrentRuns() throws Exception {
+        // Given : age * 10 은 두 번 적용되면 결과가 달라지는(멱등이 아닌) 수정이다.
+        Team team = teamRepository.save(new Team("ChunkConcurrentTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i=0; i<30; i++){
+            members.add(new Member("Chunk_Concurrent_"+i, 10+i, team));
+        }
+        memberRepository.saveAllBatched(members, 10);
+        long fromId = members.stream().mapToLong(Member::getId).min().getAsLong();
+        long toId = members.stream().mapToLong(Member::getId).max().getAsLong();
+        String jobName = "bulkAgeUpdate-0-" + System.nanoTime();
+        ChunkedBulkUpdater.RangeUpdate update = (from, to) -> memberRepository.bulkAgeUpdateRange(0, from, to);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            //when
+            CountDownLatch ready = new CountDownLatch(1);
+            Callable<ChunkedBulkUpdater.Result> job = () -> {
+                ready.await();
+                return chunkedBulkUpdater.run(jobName, fromId, toId, 3, update);
+            };
+            Future<ChunkedBulkUpdater.Result> run1 = executor.submit(job);
+            Future<ChunkedBulkUpdater.Result> run2 = executor.submit(job);
+            ready.countDown();
+            ChunkedBulkUpdater.Result result1 = run1.get(30, TimeUnit.SECONDS);
+            ChunkedBulkUpdater.Result result2 = run2.get(30, TimeUnit.SECONDS);
+
+            //then
+            Assertions.assertThat(result1.getUpdatedRows() + result2.getUpdatedRows()).isEqualTo(30);
+            Assertions.assertThat(result1.getChunks() + result2.getChunks()).isEqualTo((int) ((toId - fromId) / 3 + 1));
+            for (Member member : members) {
+                Assertions.assertThat(memberRepository.findById(member.getId()).get().getAge())
+                        .isEqualTo(member.getAge() * 10);
+            }
+        } finally {
+            executor.shutdownNow();
+            chunkedBulkUpdater.reset(jobName);
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test   // 병렬 분할 스캔 : 범위마다 별도 트랜잭션, Specification 필터 적용, 단일 스캔과 건수가 같다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testPartitionScan() {
+        // Given
+        String teamName = "ScanTeam-" + System.nanoTime();
+        Team team = teamRepository.save(new Team(teamName));
+        List<Member> members = new ArrayList<>();
+        for (int i=0; i<1000; i++){
+            members.add(new Member("Scan_Anakin_"+i, 20, team));
+        }
+        memberRepository.saveAllBatched(members, 100);
+
+        try {
+            //when
+            LongAdder single = new LongAdder();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            LongAdder parallel = new LongAdder();
+            MemberPartitionScanner.Result one = memberPartitionScanner.scan(1, MemberSpec.teamName(teamName), 100,
+                    member -> single.increment());
+            MemberPartitionScanner.Result four = memberPartitionScanner.scan(4, MemberSpec.teamName(teamName), 100,
+                    member -> {
+                        parallel.increment();
+                        threads.add(Thread.currentThread().getName());
+                    });
+
+            //then
+            Assertions.assertThat(single.sum()).isEqualTo(1000);
+            Assertions.assertThat(one.getRows()).isEqualTo(1000);
+            Assertions.assertThat(parallel.sum()).isEqualTo(1000);
+            Assertions.assertThat(four.getRows()).isEqualTo(1000);
+            Assertions.assertThat(four.getPartitions()).isEqualTo(4);
+            Assertions.assertThat(threads).allMatch(name -> name.startsWith("member-scan-"));
+
+            //when : 한 범위에서 예외가 나면 나머지 범위도 멈춘다.
+            LongAdder visited = new LongAdder();
+            Throwable thrown = Assertions.catchThrowable(() ->
+                    memberPartitionScanner.scan(4, MemberSpec.teamName(teamName), 10, member -> {
+                        visited.increment();
+                        if (member.getUsername().equals("Scan_Anakin_0")) {
+                            throw new IllegalStateException("scan failed");
+                        }
+                    }));
+            long visitedAtThrow = visited.sum();
+
+            //then : scan() 이 끝난 뒤에는 더 이상 callback 이 호출되지 않는다.
+            Assertions.assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("scan failed");
+            Assertions.assertThat(visitedAtThrow).isLessThan(1000);
+            Assertions.assertThat(visited.sum()).isEqualTo(visitedAtThrow);
+        } finally {
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+
+}
@@ -1,20 +1,48 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SpringBootTest
 @Transactional
@@ -23,6 +51,7 @@ class MemberRepositoryTest {
     @Autowired MemberJpaRepository memberJpaRepository;
     @Autowired MemberRepository memberRepository;
     @Autowired TeamJpaRepository teamRepository;
+    @Autowired TeamRepository teamDataRepository;
     @Autowired MemberSpec memberSpec;
 
     @Autowired EntityManager em;
@@ -364,10 +393,24 @@ class MemberRepositoryTest {
         em.flush();
         em.clear();
 
+        int lockTimeout = sessionLockTimeout();
         Member findMember = memberRepository.findLockByUsername("Anakin1");
 
         // 찾아온 회원이름을 수정하면,
         findMember.setUsername("Anakin_Old");
+
+        // 락 대기 시간은 조회하는 동안만 바뀌고 되돌려진다.
+        Assertions.assertThat(sessionLockTimeout()).isEqualTo(lockTimeout);
+    }
+
+    private int sessionLockTimeout() {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (java.sql.Statement statement = connection.createStatement();
+                 java.sql.ResultSet rs = statement.executeQuery("select lock_timeout()")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
     }
 
     @Test   // 사용자 정의 테스트
@@ -636,4 +679,975 @@ class MemberRepositoryTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test   // 키셋(Seek) 페이징 테스트 : 커서로 이어서 조회하면 중복/누락 없이 전체를 순회한다.
+    public void testKeysetPaging() {
+        //Given : 다른 테스트가 커밋한 회원과 섞이지 않도록 고유한 username 접두어 사용
+        String prefix = "Keyset_" + System.nanoTime() + "_";
+        Team team = new Team("KeysetTeam");
+        em.persist(team);
+        for (int i = 0; i < 25; i++) {
+            em.persist(new Member(prefix + (i % 5), 10 + i, team));   // 같은 username 을 일부러 중복시킨다.
+        }
+        em.flush();
+        em.clear();
+
+        // When : 접두어 바로 앞(prefix, 0) 에서 시작해서 접두어가 끝날 때까지만 순회
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        MemberCursor cursor = new MemberCursor(prefix, 0L);
+        List<MemberDto> all = new ArrayList<>();
+        while (true) {
+            Slice<MemberDto> page = memberRepository.findKeysetNext(cursor.getUsername(), cursor.getId(), pageRequest);
+            List<MemberDto> content = page.getContent();
+            content.stream().filter(dto -> dto.getUsername().startsWith(prefix)).forEach(all::add);
+            if (!page.hasNext() || !content.get(content.size() - 1).getUsername().startsWith(prefix)) {
+                break;
+            }
+            cursor = MemberCursor.decode(MemberCursor.of(content.get(content.size() - 1)).encode());
+        }
+
+        // Then
+        Assertions.assertThat(all).hasSize(25);
+        Assertions.assertThat(all).extracting(MemberDto::getId).doesNotHaveDuplicates();
+        Assertions.assertThat(all).extracting(MemberDto::getUsername).isSorted();
+        Assertions.assertThatThrownBy(() -> MemberCursor.decode("!!not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * <2차 캐시 테스트>
+     *     - 엔티티로 조회 후 DTO 로 변환할 때 (MemberDto::new 에서 Team 지연로딩)
+     *     - 캐시가 데워진 후에는 Team 을 DB 에서 다시 조회(select)하지 않는다.
+     *     - 이 테스트가 만든 팀의 회원만 조회한다. (MemberSpec.teamName)
+     * */
+    @Test
+    public void testSecondLevelCacheTeam() {
+        //Given
+        String teamName = "CacheTeam-" + System.nanoTime();
+        Team team = new Team(teamName);
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("CacheAnakin" + i, 20 + i, team));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);     // 운영 설정은 statistics 프로필에서만 켠다.
+
+        // When : 1번째 조회로 캐시를 데운다.
+        memberRepository.findAll(MemberSpec.teamName(teamName)).stream().map(MemberDto::new).collect(Collectors.toList());
+        em.clear();
+        statistics.clear();
+
+        // When : 2번째 조회
+        List<MemberDto> result = memberRepository.findAll(MemberSpec.teamName(teamName)).stream()
+                .map(MemberDto::new)
+                .collect(Collectors.toList());
+
+        // Then : 이 팀은 2차 캐시에서 가져온다.
+        Assertions.assertThat(result).hasSize(5).extracting(MemberDto::getTeamName).containsOnly(teamName);
+        Assertions.assertThat(em.getEntityManagerFactory().getCache().contains(Team.class, team.getId())).isTrue();
+        Assertions.assertThat(statistics.getEntityStatistics(Team.class.getName()).getLoadCount()).isZero();
+        Assertions.assertThat(statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount()).isPositive();
+    }
+
+    /**
+     * <쿼리 결과 캐시 테스트>
+     *     - 같은 이름으로 2번 조회하면 2번째는 쿼리 캐시에서 가져온다.
+     *     - bulkAgeUpdate() 로 member 테이블이 바뀌면 캐시된 결과는 무효가 되고, 수정된 값이 조회된다.
+     *     - 쿼리 캐시는 커밋된 변경만 반영하므로 트랜잭션 없이(건별 커밋) 실행한다.
+     * */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testQueryCacheFindByUsername() throws InterruptedException {
+        // Given : 다른 테스트 데이터와 섞이지 않는 이름/나이
+        String username = "QueryCache_" + System.nanoTime();
+        int age = 1_000_000 + (int) (System.nanoTime() % 100_000);
+        Member member = memberRepository.save(new Member(username, age, null));
+        Thread.sleep(10);   // 입력 커밋 시각과 캐시 적재 시각이 같은 밀리초가 되지 않도록
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // When : 1번째 조회는 캐시를 채우고, 2번째 조회는 캐시에서 가져온다.
+            statistics.clear();
+            memberRepository.findByUsername(username);
+            long missAfterFirst = statistics.getQueryCacheMissCount();
+            List<Member> cached = memberRepository.findByUsername(username);
+
+            // Then
+            Assertions.assertThat(missAfterFirst).isEqualTo(1);
+            Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+            Assertions.assertThat(cached).extracting(Member::getAge).containsExactly(age);
+
+            // When : 벌크 수정이 커밋되면 캐시된 결과는 무효가 된다.
+            Thread.sleep(10);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgeUpdate(age));
+            statistics.clear();
+            List<Member> updated = memberRepository.findByUsername(username);
+
+            // Then
+            Assertions.assertThat(statistics.getQueryCacheHitCount()).isZero();
+            Assertions.assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+            Assertions.assertThat(updated).extracting(Member::getAge).containsExactly(age * 10);
+        } finally {
+            memberRepository.deleteById(member.getId());
+        }
+    }
+
+    @Test   // 대량 입력 : 입력한 회원만 detach 되고, 호출한 쪽이 관리하던 엔티티는 영속 상태로 남는다.
+    public void testSaveAllBatched() {
+        // Given
+        Team team = new Team("BatchTeam");
+        em.persist(team);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(new Member("BatchAnakin_" + i, i, team));
+        }
+
+        // When
+        int saved = memberRepository.saveAllBatched(members, 10);
+
+        // Then
+        Assertions.assertThat(saved).isEqualTo(25);
+        Assertions.assertThat(em.contains(team)).isTrue();
+        Assertions.assertThat(members).noneMatch(em::contains).allMatch(m -> m.getId() != null);
+    }
+
+    /**
+     * <대량 입력 벤치마크>
+     *     - 기존 방식 : 건별 save() (건마다 트랜잭션 + insert 1회)
+     *     - 배치 방식 : saveAllBatched() (JDBC 배치 insert + flush/detach)
+     *     - 초당 입력 건수를 출력해서 비교한다.
+     *     - 2만 건을 커밋하므로 기본 테스트에서는 제외된다. (./gradlew benchmark)
+     * */
+    @Test
+    @Tag("benchmark")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void benchmarkBulkInsert() {
+        int rows = 10_000;
+        Team team = teamDataRepository.save(new Team("BulkTeam-" + System.nanoTime()));   // 트랜잭션 밖이므로 스프링 데이터 JPA 리포지토리 사용
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                memberRepository.save(new Member("SaveAnakin_" + i, i % 100, team));
+            }
+            double saveSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            List<Member> members = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                members.add(new Member("BatchAnakin_" + i, i % 100, team));
+            }
+            start = System.nanoTime();
+            int saved = memberRepository.saveAllBatched(members, 1000);
+            double batchSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("\t save()           : %,.0f rows/sec%n", rows / saveSeconds);
+            System.out.printf("\t saveAllBatched() : %,.0f rows/sec%n", rows / batchSeconds);
+            Assertions.assertThat(saved).isEqualTo(rows);
+            Assertions.assertThat(memberRepository.count(MemberSpec.teamName(team.getName()))).isEqualTo(rows * 2L);
+        } finally {
+            tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", team.getId())
+                    .executeUpdate());
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test   // 대량 IN 절 : chunk-size(1024) 를 넘는 이름 목록도 나눠서 조회 후 합친다.
+    public void testFindByNamesInChunked() {
+        // Given
+        Team team = new Team("InClauseTeam");
+        em.persist(team);
+        em.persist(new Member("InClause_Anakin_1", 25, team));
+        em.persist(new Member("InClause_Anakin_2999", 32, team));
+        em.flush();
+        em.clear();
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            names.add("InClause_Anakin_" + i);
+        }
+        names.add("InClause_Anakin_1");   // 중복 이름
+
+        // When
+        List<Member> result = memberRepository.findByNamesIn(names);
+
+        // Then
+        Assertions.assertThat(result).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("InClause_Anakin_1", "InClause_Anakin_2999");
+    }
+
+    @Test   // 팀 회원 수(member_count) : 입력/삭제가 커밋될 때 증분으로 반영되고, 2차 캐시의 팀도 새 값으로 조회된다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testTeamMemberCount() {
+        // Given
+        Team team = teamDataRepository.save(new Team("CountTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("CountAnakin_" + i, 20, team));
+        }
+        memberRepository.saveAllBatched(members, 100);
+        teamDataRepository.findById(team.getId());   // 2차 캐시에 올린다.
+
+        try {
+            // When
+            memberRepository.delete(memberRepository.findById(members.get(0).getId()).get());
+
+            // Then
+            Assertions.assertThat(teamDataRepository.findMemberCountById(team.getId())).isEqualTo(4L);
+            Assertions.assertThat(teamDataRepository.findById(team.getId()).get().getMemberCount()).isEqualTo(4L);
+
+            // When : 벌크 삭제는 이벤트가 없으므로 대상 팀만 재계산한다.
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId")
+                        .setParameter("teamId", team.getId())
+                        .executeUpdate();
+                teamDataRepository.recountMemberCounts(List.of(team.getId()));
+            });
+
+            // Then
+            Assertions.assertThat(teamDataRepository.findMemberCountById(team.getId())).isZero();
+        } finally {
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    /**
+     * <DTO 직접 조회>
+     *     - 엔티티 조회 후 변환 : findPageAll + MemberDto::new (엔티티 생성 + 스냅샷 + Team 배치 페치)
+     *     - DTO 직접 조회      : findMemberDtoPage (left join 한 번, 엔티티 없음)
+     *     - 두 결과는 같고, DTO 직접 조회는 영속성 컨텍스트에 엔티티를 올리지 않는다.
+     *     - 입력한 회원은 롤백한다.
+     * */
+    @Test
+    @Rollback
+    public void testMemberDtoPage() {
+        // Given
+        String teamName = "DtoTeam-" + System.nanoTime();
+        Team team = new Team(teamName);
+        em.persist(team);
+        for (int i = 0; i < 200; i++) {
+            em.persist(new Member("DtoAnakin_" + i, 20, team));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 200, Sort.by(Sort.Direction.DESC, "id"));   // 방금 입력한 회원이 첫 페이지
+
+        // When : 엔티티 조회 후 변환
+        Page<MemberDto> entityPage = memberRepository.findPageAll(pageRequest).map(MemberDto::new);
+        em.clear();
+
+        // When : DTO 직접 조회
+        Page<MemberDto> dtoPage = memberRepository.findMemberDtoPage(pageRequest);
+        int managedEntities = em.unwrap(Session.class).getStatistics().getEntityCount();
+
+        // Then
+        Assertions.assertThat(dtoPage.getContent()).hasSize(200)
+                .extracting(MemberDto::getTeamName).containsOnly(teamName);
+        Assertions.assertThat(dtoPage.getContent()).containsExactlyElementsOf(entityPage.getContent());
+        Assertions.assertThat(dtoPage.getTotalElements()).isEqualTo(entityPage.getTotalElements());
+        Assertions.assertThat(managedEntities).isZero();
+    }
+
+    /**
+     * <DTO 직접 조회 벤치마크>
+     *     - 엔티티 조회 후 변환(findPageAll + MemberDto::new) vs DTO 직접 조회(findMemberDtoPage)
+     *     - 2000 건 페이지를 반복 조회해서 요청당 평균 응답시간과 쓰레드 할당 메모리(byte)를 출력한다.
+     *     - 측정용이므로 검증하지 않는다. 기본 테스트에서는 제외된다. (./gradlew benchmark), 입력한 회원은 롤백한다.
+     * */
+    @Test
+    @Tag("benchmark")
+    @Rollback
+    public void benchmarkMemberDtoPage() {
+        // Given
+        Team team = new Team("DtoBenchTeam-" + System.nanoTime());
+        em.persist(team);
+        for (int i = 0; i < 2000; i++) {
+            em.persist(new Member("DtoBenchAnakin_" + i, 20, team));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 2000, Sort.by(Sort.Direction.DESC, "id"));
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // 워밍업 (JIT, 쿼리 계획 캐시)
+        for (int i = 0; i < 5; i++) {
+            memberRepository.findPageAll(pageRequest).map(MemberDto::new);
+            em.clear();
+            memberRepository.findMemberDtoPage(pageRequest);
+            em.clear();
+        }
+
+        // When
+        int iterations = 20;
+        long entityNanos = 0, entityBytes = 0, dtoNanos = 0, dtoBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long bytes = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            memberRepository.findPageAll(pageRequest).map(MemberDto::new);
+            entityNanos += System.nanoTime() - start;
+            entityBytes += threadBean.getThreadAllocatedBytes(threadId) - bytes;
+            em.clear();
+
+            bytes = threadBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            memberRepository.findMemberDtoPage(pageRequest);
+            dtoNanos += System.nanoTime() - start;
+            dtoBytes += threadBean.getThreadAllocatedBytes(threadId) - bytes;
+            em.clear();
+        }
+
+        // Then : 요청당 평균
+        System.out.printf("\t entity + map : %,.2f ms, %,d bytes%n", entityNanos / 1_000_000.0 / iterations, entityBytes / iterations);
+        System.out.printf("\t dto direct   : %,.2f ms, %,d bytes%n", dtoNanos / 1_000_000.0 / iterations, dtoBytes / iterations);
+    }
+
+    @Test   // 리플렉션 없는 Projections : 기존 조회 메소드가 프록시가 아닌 TupleProjections 구현 클래스를 돌려준다.
+    @Rollback
+    public void testTupleProjections() {
+        // Given
+        Team team = new Team("TupleTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("TupleAnakin", 30 + i, team));
+        }
+        em.flush();
+        em.clear();
+
+        // When
+        List<UsernameOnly> usernames = memberRepository.findProjectionsByUsername("TupleAnakin");
+        List<NestedClosedProjections> nested = memberRepository.findNestedProjectionsByUsername("TupleAnakin");
+        Page<MemberProjection> page = memberRepository.findPageByNativeProjection("TupleAnakin", 30, 39, PageRequest.of(0, 5));
+
+        // Then : Open Projection(@Value) 과 같은 값 (username + ' ' + age)
+        Assertions.assertThat(usernames).hasSize(10)
+                .allMatch(TupleProjections.UsernameOnlyRow.class::isInstance)
+                .noneMatch(row -> Proxy.isProxyClass(row.getClass()))
+                .extracting(UsernameOnly::getUsername).contains("TupleAnakin 30", "TupleAnakin 39");
+        Assertions.assertThat(nested).hasSize(10)
+                .allMatch(TupleProjections.NestedClosedRow.class::isInstance);
+        Assertions.assertThat(nested.get(0).getTeam().getName()).isEqualTo("TupleTeam");
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(10);
+        Assertions.assertThat(page.getContent()).hasSize(5)
+                .allMatch(TupleProjections.MemberProjectionRow.class::isInstance)
+                .extracting(MemberProjection::getTeamName).containsOnly("TupleTeam");
+    }
+
+    /**
+     * <리플렉션 없는 Projections 벤치마크>
+     *     - 같은 1000 건을 프록시 기반 Projections 와 TupleProjections 구현 클래스로 만들고, 행당 할당 메모리(byte)를 비교한다.
+     *     - Open Projection(UsernameOnly) : 엔티티 조회 + 프록시 + SpEL (스프링 데이터 방식) vs findProjectionsByUsername
+     *     - Closed Projection(MemberProjection) : 같은 네이티브 결과(Object[])를 Map + 프록시 vs 구현 클래스로 변환 (변환 비용만)
+     *     - 측정용이므로 검증하지 않는다. 기본 테스트에서는 제외된다. (./gradlew benchmark), 입력한 회원은 롤백한다.
+     * */
+    @Test
+    @Tag("benchmark")
+    @Rollback
+    public void benchmarkTupleProjections() {
+        // Given
+        int rows = 1000;
+        String username = "TupleBenchAnakin_" + System.nanoTime();
+        Team team = new Team("TupleBenchTeam");
+        em.persist(team);
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member(username, i, team));
+        }
+        em.flush();
+        em.clear();
+
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        @SuppressWarnings("unchecked")
+        List<Object[]> nativeRows = em.createNativeQuery(
+                        "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id " +
+                        " where m.username = ?1")
+                .setParameter(1, username)
+                .getResultList();
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        Runnable openProxy = () -> {
+            em.createQuery("select m from Member m where m.username = :username", Member.class)
+                    .setParameter("username", username)
+                    .getResultList()
+                    .forEach(member -> projectionFactory.createProjection(UsernameOnly.class, member).getUsername());
+            em.clear();
+        };
+        Runnable openRow = () -> memberRepository.findProjectionsByUsername(username)
+                .forEach(UsernameOnly::getUsername);
+        Runnable closedProxy = () -> nativeRows.forEach(row -> {
+            Map<String, Object> source = new HashMap<>();
+            source.put("id", ((Number) row[0]).longValue());
+            source.put("username", row[1]);
+            source.put("teamName", row[2]);
+            MemberProjection projection = projectionFactory.createProjection(MemberProjection.class, source);
+            projection.getId();
+            projection.getUsername();
+            projection.getTeamName();
+        });
+        Runnable closedRow = () -> nativeRows.forEach(row -> {
+            MemberProjection projection = TupleProjections.memberProjection(row);
+            projection.getId();
+            projection.getUsername();
+            projection.getTeamName();
+        });
+
+        // 워밍업 (JIT, 프록시 클래스 생성, 쿼리 계획 캐시)
+        for (int i = 0; i < 5; i++) {
+            openProxy.run();
+            openRow.run();
+            closedProxy.run();
+            closedRow.run();
+        }
+
+        // When
+        int iterations = 20;
+        long openProxyBytes = allocatedBytes(threadBean, iterations, openProxy);
+        long openRowBytes = allocatedBytes(threadBean, iterations, openRow);
+        long closedProxyBytes = allocatedBytes(threadBean, iterations, closedProxy);
+        long closedRowBytes = allocatedBytes(threadBean, iterations, closedRow);
+
+        // Then : 행당 평균
+        long perRow = (long) iterations * rows;
+        System.out.printf("\t UsernameOnly     proxy + SpEL : %,d bytes/row%n", openProxyBytes / perRow);
+        System.out.printf("\t UsernameOnly     row class    : %,d bytes/row%n", openRowBytes / perRow);
+        System.out.printf("\t MemberProjection proxy        : %,d bytes/row (변환만)%n", closedProxyBytes / perRow);
+        System.out.printf("\t MemberProjection row class    : %,d bytes/row (변환만)%n", closedRowBytes / perRow);
+    }
+
+    // 현재 쓰레드에서 task 를 iterations 번 실행하는 동안 할당한 메모리(byte)
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threadBean, int iterations, Runnable task) {
+        long threadId = Thread.currentThread().getId();
+        long bytes = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return threadBean.getThreadAllocatedBytes(threadId) - bytes;
+    }
+
+    @Test   // 엔티티 스트리밍 : 소비한 회원은 detach 되어 영속성 컨텍스트가 커지지 않는다.
+    public void testStreamDetachesConsumedMembers() {
+        // Given
+        Team team = new Team("StreamTeam");
+        em.persist(team);
+        for (int i = 0; i < 500; i++) {
+            em.persist(new Member("StreamAnakin_" + i, 30, team));
+        }
+        em.flush();
+        em.clear();
+
+        Session session = em.unwrap(Session.class);
+
+        // When
+        int maxManaged = 0;
+        long count = 0;
+        try (Stream<Member> stream = memberRepository.streamMemberEntityGraph(100)) {
+            for (Member member : (Iterable<Member>) stream::iterator) {
+                Assertions.assertThat(member.getTeam()).isNotNull();
+                maxManaged = Math.max(maxManaged, session.getStatistics().getEntityCount());
+                count++;
+            }
+        }
+
+        long nativeCount;
+        try (Stream<Member> stream = memberRepository.streamByNativeQuery("StreamAnakin_%", 30, 30, 100)) {
+            nativeCount = stream.count();
+        }
+
+        // Then : 현재 회원 1건 + 팀들만 남는다.
+        Assertions.assertThat(count).isGreaterThanOrEqualTo(500);
+        Assertions.assertThat(nativeCount).isEqualTo(500);
+        Assertions.assertThat(maxManaged).isLessThan(100);
+        Assertions.assertThat(session.getStatistics().getEntityKeys())
+                .noneMatch(key -> key.getEntityName().equals(Member.class.getName()));
+    }
+
+    @Autowired ProjectionPlanCache projectionPlanCache;
+
+    // 캐시에 미리 만들어 두지 않은 Closed 인터페이스
+    public interface UsernameAge {
+        String getUsername();
+        int getAge();
+    }
+
+    @Test   // 동적 Projections 실행 계획 캐시 : 같은 (조회 메소드, 타입) 은 같은 계획을 돌려주고, 동시에 요청해도 분석은 한 번만 한다.
+    public void testProjectionPlanCache() throws Exception {
+        // Given
+        Team teamA = new Team("ProjectionTeamA");
+        em.persist(teamA);
+        em.persist(new Member("PlanAnakin", 23, teamA));
+        em.flush();
+        em.clear();
+        long resolutions = projectionPlanCache.resolutions();
+
+        // When : 기동 시점에 미리 만들어 둔 타입
+        ProjectionPlanCache.ProjectionPlan<UsernameOnlyDto> dtoPlan =
+                projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, UsernameOnlyDto.class);
+        List<UsernameOnlyDto> dtos = memberRepository.findProjectionDtoByUsername("PlanAnakin", UsernameOnlyDto.class);
+
+        // Then
+        Assertions.assertThat(projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, UsernameOnlyDto.class)).isSameAs(dtoPlan);
+        Assertions.assertThat(dtos).extracting(UsernameOnlyDto::getUsername).containsExactly("PlanAnakin");
+        Assertions.assertThat(memberRepository.findProjectionDtoByUsername("PlanAnakin", NestedClosedProjections.class))
+                .extracting(p -> p.getTeam().getName())
+                .containsExactly("ProjectionTeamA");
+        Assertions.assertThat(projectionPlanCache.resolutions()).isEqualTo(resolutions);
+
+        // When : 처음 보는 타입을 여러 쓰레드가 동시에 요청
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Set<ProjectionPlanCache.ProjectionPlan<UsernameAge>> plans = ConcurrentHashMap.newKeySet();
+        try {
+            runConcurrently(executor, threads, 100,
+                    () -> plans.add(projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, UsernameAge.class)));
+        } finally {
+            executor.shutdown();
+        }
+        List<UsernameAge> ages = memberRepository.findProjectionDtoByUsername("PlanAnakin", UsernameAge.class);
+
+        // Then
+        Assertions.assertThat(plans).hasSize(1);
+        Assertions.assertThat(projectionPlanCache.resolutions()).isEqualTo(resolutions + 1);
+        Assertions.assertThat(ages).extracting(UsernameAge::getAge).containsExactly(23);
+    }
+
+    /**
+     * <동적 Projections 실행 계획 캐시 벤치마크>
+     *     - 매번 분석(resolve) vs 캐시 조회(get) 를 8 개 쓰레드에서 동시에 반복한다.
+     *     - DTO 클래스(생성자 탐색)와 Closed 인터페이스(ProjectionInformation) 두 가지 타입으로 측정한다.
+     *     - 초당 처리 횟수를 출력만 한다. 기본 테스트에서는 제외된다. (./gradlew benchmark)
+     * */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkProjectionPlanCache() throws Exception {
+        int threads = 8;
+        int iterations = 20_000;
+        List<Class<?>> types = List.of(UsernameOnlyDto.class, UsernameAge.class);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Class<?> type : types) {
+                // 워밍업 (JIT + 캐시 적재)
+                runConcurrently(executor, threads, 1_000, () -> projectionPlanCache.resolve(ProjectionPlanCache.BY_USERNAME, type));
+                runConcurrently(executor, threads, 1_000, () -> projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, type));
+
+                // When
+                long uncachedNanos = runConcurrently(executor, threads, iterations,
+                        () -> projectionPlanCache.resolve(ProjectionPlanCache.BY_USERNAME, type));
+                long cachedNanos = runConcurrently(executor, threads, iterations,
+                        () -> projectionPlanCache.get(ProjectionPlanCache.BY_USERNAME, type));
+
+                // Then
+                double calls = (double) threads * iterations;
+                System.out.printf("\t %s%n", type.getSimpleName());
+                System.out.printf("\t   resolve every call : %,.0f calls/sec%n", calls / (uncachedNanos / 1_000_000_000.0));
+                System.out.printf("\t   cached plan        : %,.0f calls/sec%n", calls / (cachedNanos / 1_000_000_000.0));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // 작업을 threads 개 쓰레드에서 iterations 번씩 동시에 실행하고, 모두 끝날 때까지 걸린 시간(nanos)을 반환한다.
+    private long runConcurrently(ExecutorService executor, int threads, int iterations, Runnable task) throws Exception {
+        List<Callable<Void>> jobs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            jobs.add(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    task.run();
+                }
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        for (Future<Void> future : executor.invokeAll(jobs)) {
+            future.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Autowired OptimisticRetryExecutor optimisticRetryExecutor;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test   // 경합 : 같은 회원을 여러 쓰레드가 동시에 수정 (낙관적 락 + 재시도 / 비관적 락) + skip locked 작업 큐
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testLockContention() throws Exception {
+        int threads = 8;
+        int updatesPerThread = 20;
+        Team team = teamDataRepository.save(new Team("LockTeam"));
+        Member optimistic = memberRepository.save(new Member("Optimistic_" + System.nanoTime(), 0, team));
+        Member pessimistic = memberRepository.save(new Member("Pessimistic_" + System.nanoTime(), 0, team));
+        List<Member> queue = new ArrayList<>();
+        for (int i = 0; i < threads * updatesPerThread; i++) {
+            queue.add(new Member("Queue_" + i, 4242, team));
+        }
+        memberRepository.saveAllBatched(queue, 100);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // When : @Version + 재시도 (max-attempts 를 넘긴 요청은 실패로 센다)
+            long retries = optimisticRetryExecutor.getRetries();
+            LongAdder optimisticFailures = new LongAdder();
+            runConcurrently(executor, threads, updatesPerThread, () -> {
+                try {
+                    optimisticRetryExecutor.execute(() -> {
+                        Member member = memberRepository.findById(optimistic.getId()).get();
+                        member.setAge(member.getAge() + 1);
+                        return null;
+                    });
+                } catch (OptimisticLockingFailureException e) {
+                    optimisticFailures.increment();
+                }
+            });
+
+            // When : select ... for update (대기 시간 제한)
+            runConcurrently(executor, threads, updatesPerThread,
+                    () -> tx.executeWithoutResult(status -> {
+                        Member member = memberRepository.findLockByUsername(pessimistic.getUsername());
+                        member.setAge(member.getAge() + 1);
+                    }));
+
+            // When : skip locked 작업 큐 (서로 다른 행을 나눠 가진다)
+            LongAdder processed = new LongAdder();
+            runConcurrently(executor, threads, 1, () -> {
+                while (true) {
+                    Integer claimed = tx.execute(status -> {
+                        List<Member> work = memberRepository.findWorkQueueByAge(4242, 5);
+                        work.forEach(member -> member.setAge(4243));
+                        return work.size();
+                    });
+                    if (claimed == null || claimed == 0) {
+                        return;
+                    }
+                    processed.add(claimed);
+                }
+            });
+
+            // Then : 낙관적 락은 충돌 후 재시도했고, 성공한 수정만큼 나이가 늘었다.
+            Assertions.assertThat(optimisticRetryExecutor.getRetries()).isGreaterThan(retries);
+            Assertions.assertThat(memberRepository.findById(optimistic.getId()).get().getAge())
+                    .isEqualTo(threads * updatesPerThread - optimisticFailures.intValue());
+            Assertions.assertThat(memberRepository.findById(pessimistic.getId()).get().getAge())
+                    .isEqualTo(threads * updatesPerThread);
+            Assertions.assertThat(processed.sum()).isEqualTo(threads * updatesPerThread);
+        } finally {
+            executor.shutdown();
+            tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", team.getId())
+                    .executeUpdate());
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    /**
+     * <경합 벤치마크>
+     *     - 16 개 쓰레드가 동시에 수정 : 낙관적 락 + 재시도 / 비관적 락(select ... for update) / skip locked 작업 큐
+     *     - 방식마다 처리량(건/초)과 요청당 대기 시간(평균, 최대 = 요청 시작부터 커밋까지)을 출력한다.
+     *     - 낙관적 락은 재시도 횟수와 max-attempts 를 넘겨 실패한 건수도 출력한다.
+     *     - 측정용이므로 검증하지 않는다. 기본 테스트에서는 제외된다. (./gradlew benchmark), 끝나면 지운다.
+     * */
+    @Test
+    @Tag("benchmark")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void benchmarkLockContention() throws Exception {
+        int threads = 16;
+        int updatesPerThread = 50;
+        int total = threads * updatesPerThread;
+        Team team = teamDataRepository.save(new Team("LockBenchTeam-" + System.nanoTime()));
+        Member optimistic = memberRepository.save(new Member("OptimisticBench_" + System.nanoTime(), 0, team));
+        Member pessimistic = memberRepository.save(new Member("PessimisticBench_" + System.nanoTime(), 0, team));
+        List<Member> queue = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            queue.add(new Member("QueueBench_" + i, 4343, team));
+        }
+        memberRepository.saveAllBatched(queue, 100);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // When : @Version + 재시도
+            long retries = optimisticRetryExecutor.getRetries();
+            LongAdder optimisticFailures = new LongAdder();
+            LongAdder optimisticWait = new LongAdder();
+            LongAccumulator optimisticMaxWait = new LongAccumulator(Math::max, 0);
+            long optimisticNanos = runConcurrently(executor, threads, updatesPerThread, timed(optimisticWait, optimisticMaxWait, () -> {
+                try {
+                    optimisticRetryExecutor.execute(() -> {
+                        Member member = memberRepository.findById(optimistic.getId()).get();
+                        member.setAge(member.getAge() + 1);
+                        return null;
+                    });
+                } catch (OptimisticLockingFailureException e) {
+                    optimisticFailures.increment();
+                }
+            }));
+            long optimisticRetries = optimisticRetryExecutor.getRetries() - retries;
+
+            // When : select ... for update (member.lock.timeout-millis 를 넘긴 요청은 실패로 센다)
+            LongAdder pessimisticFailures = new LongAdder();
+            LongAdder pessimisticWait = new LongAdder();
+            LongAccumulator pessimisticMaxWait = new LongAccumulator(Math::max, 0);
+            long pessimisticNanos = runConcurrently(executor, threads, updatesPerThread, timed(pessimisticWait, pessimisticMaxWait, () -> {
+                try {
+                    tx.executeWithoutResult(status -> {
+                        Member member = memberRepository.findLockByUsername(pessimistic.getUsername());
+                        member.setAge(member.getAge() + 1);
+                    });
+                } catch (PessimisticLockingFailureException e) {
+                    pessimisticFailures.increment();
+                }
+            }));
+
+            // When : skip locked 작업 큐 (5 건씩 가져가서 처리, 대기 시간은 가져간 묶음 단위)
+            LongAdder processed = new LongAdder();
+            LongAdder queueWait = new LongAdder();
+            LongAccumulator queueMaxWait = new LongAccumulator(Math::max, 0);
+            LongAdder claims = new LongAdder();
+            long queueNanos = runConcurrently(executor, threads, 1, () -> {
+                while (true) {
+                    long start = System.nanoTime();
+                    Integer claimed = tx.execute(status -> {
+                        List<Member> work = memberRepository.findWorkQueueByAge(4343, 5);
+                        work.forEach(member -> member.setAge(4344));
+                        return work.size();
+                    });
+                    if (claimed == null || claimed == 0) {
+                        return;
+                    }
+                    long waited = System.nanoTime() - start;
+                    queueWait.add(waited);
+                    queueMaxWait.accumulate(waited);
+                    claims.increment();
+                    processed.add(claimed);
+                }
+            });
+
+            // Then
+            System.out.printf("\t %d threads x %d updates%n", threads, updatesPerThread);
+            printContention("optimistic + retry", total - optimisticFailures.sum(), optimisticNanos,
+                    optimisticWait.sum() / total, optimisticMaxWait.get());
+            System.out.printf("\t   retries %,d, failed after max-attempts %,d%n", optimisticRetries, optimisticFailures.sum());
+            printContention("pessimistic lock", total - pessimisticFailures.sum(), pessimisticNanos,
+                    pessimisticWait.sum() / total, pessimisticMaxWait.get());
+            System.out.printf("\t   lock timeouts %,d%n", pessimisticFailures.sum());
+            printContention("skip locked queue", processed.sum(), queueNanos,
+                    claims.sum() == 0 ? 0 : queueWait.sum() / claims.sum(), queueMaxWait.get());
+        } finally {
+            executor.shutdown();
+            tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", team.getId())
+                    .executeUpdate());
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    // 요청마다 걸린 시간을 합계(sum)와 최대값(max)에 더한다.
+    private static Runnable timed(LongAdder sum, LongAccumulator max, Runnable task) {
+        return () -> {
+            long start = System.nanoTime();
+            task.run();
+            long elapsed = System.nanoTime() - start;
+            sum.add(elapsed);
+            max.accumulate(elapsed);
+        };
+    }
+
+    private static void printContention(String name, long updates, long elapsedNanos, long avgWaitNanos, long maxWaitNanos) {
+        System.out.printf("\t %-18s : %,.0f updates/sec, wait avg %,.2f ms, max %,.2f ms%n", name,
+                updates / (elapsedNanos / 1_000_000_000.0), avgWaitNanos / 1_000_000.0, maxWaitNanos / 1_000_000.0);
+    }
+
+    @Test   // 읽기 전용 : readOnly 트랜잭션에서 조회한 회원은 읽기 전용(스냅샷 없음), StatelessSession 은 영속성 컨텍스트에 올리지 않는다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testReadOnlyModes() {
+        // Given
+        Team team = teamDataRepository.save(new Team("ReadOnlyTeam-" + System.nanoTime()));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("ReadOnlyAnakin_" + i, 20, team));
+        }
+        memberRepository.saveAllBatched(members, 100);
+
+        TransactionTemplate readWriteTx = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        try {
+            // When
+            List<Boolean> readWrite = readWriteTx.execute(status -> memberRepository.findMemberFetchJoin().stream()
+                    .map(em.unwrap(Session.class)::isReadOnly)
+                    .collect(Collectors.toList()));
+            List<Boolean> readOnly = readOnlyTx.execute(status -> memberRepository.findMemberFetchJoin().stream()
+                    .map(em.unwrap(Session.class)::isReadOnly)
+                    .collect(Collectors.toList()));
+            int[] stateless = readOnlyTx.execute(status -> new int[]{
+                    memberRepository.findAllStateless().size(),
+                    em.unwrap(Session.class).getStatistics().getEntityCount()});
+
+            // Then
+            Assertions.assertThat(readWrite).hasSizeGreaterThanOrEqualTo(10).containsOnly(false);
+            Assertions.assertThat(readOnly).hasSameSizeAs(readWrite).containsOnly(true);
+            Assertions.assertThat(stateless[0]).isEqualTo(readWrite.size());
+            Assertions.assertThat(stateless[1]).isZero();
+        } finally {
+            memberRepository.deleteAll(members);
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    /**
+     * <읽기 전용 벤치마크 (10만 건)>
+     *     - 읽기/쓰기 트랜잭션 vs readOnly 트랜잭션 vs StatelessSession
+     *     - 시간과 쓰레드 할당 메모리(byte)를 출력해서 비교한다.
+     *     - 10만 건을 커밋하므로 기본 테스트에서는 제외된다. (./gradlew benchmark), 끝나면 지운다.
+     * */
+    @Test
+    @Tag("benchmark")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void benchmarkReadOnlyModes() {
+        // Given
+        int rows = 100_000;
+        Team team = teamDataRepository.save(new Team("ReportTeam-" + System.nanoTime()));
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("ReportAnakin_" + i, i % 100, team));
+        }
+        memberRepository.saveAllBatched(members, 1000);
+        members = null;
+
+        TransactionTemplate readWriteTx = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        try {
+            // When
+            long bytes = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            Integer readWrite = readWriteTx.execute(status -> memberRepository.findMemberFetchJoin().size());
+            long readWriteNanos = System.nanoTime() - start;
+            long readWriteBytes = threadBean.getThreadAllocatedBytes(threadId) - bytes;
+
+            bytes = threadBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            Integer readOnly = readOnlyTx.execute(status -> memberRepository.findMemberFetchJoin().size());
+            long readOnlyNanos = System.nanoTime() - start;
+            long readOnlyBytes = threadBean.getThreadAllocatedBytes(threadId) - bytes;
+
+            bytes = threadBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            int stateless = memberRepository.findAllStateless().size();
+            long statelessNanos = System.nanoTime() - start;
+            long statelessBytes = threadBean.getThreadAllocatedBytes(threadId) - bytes;
+
+            // Then
+            System.out.printf("\t read-write tx : %,d ms, %,d bytes%n", readWriteNanos / 1_000_000, readWriteBytes);
+            System.out.printf("\t readOnly tx   : %,d ms, %,d bytes%n", readOnlyNanos / 1_000_000, readOnlyBytes);
+            System.out.printf("\t stateless     : %,d ms, %,d bytes%n", statelessNanos / 1_000_000, statelessBytes);
+            Assertions.assertThat(readWrite).isGreaterThanOrEqualTo(rows);
+            Assertions.assertThat(readOnly).isEqualTo(readWrite);
+            Assertions.assertThat(stateless).isEqualTo(readWrite);
+        } finally {
+            readWriteTx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", team.getId())
+                    .executeUpdate());
+            teamDataRepository.deleteById(team.getId());
+        }
+    }
+
+    @Autowired CountCache countCache;
+
+    @Test   // Page count 모드 : CONCURRENT / CACHED / ESTIMATE 의 전체 건수가 EXACT 와 같고, 커밋 후 CACHED 가 무효화된다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)   // count 는 별도 트랜잭션(커넥션)에서 수행되므로 커밋된 데이터로 확인
+    public void testCountModes() {
+        // Given : 다른 테스트 데이터와 섞이지 않는 나이
+        int age = 500_000 + (int) (System.nanoTime() % 100_000);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            members.add(new Member("CountMode_" + i, age, null));
+        }
+        memberRepository.saveAllBatched(members, 100);
+        Member added = null;
+        try {
+            // When
+            long exact = memberRepository.findPageByAge(age, CountPageRequest.of(0, 5, CountMode.EXACT)).getTotalElements();
+            Page<Member> concurrent = memberRepository.findPageByAge(age, CountPageRequest.of(0, 5, CountMode.CONCURRENT));
+            Page<Member> shortPage = memberRepository.findPageByAge(age, CountPageRequest.of(0, 50, CountMode.CONCURRENT));
+            long cached = memberRepository.findPageByAge(age, CountPageRequest.of(0, 5, CountMode.CACHED)).getTotalElements();
+
+            added = memberRepository.save(new Member("CountMode_added", age, null));   // 커밋
+            long cachedAfterInsert = memberRepository.findPageByAge(age, CountPageRequest.of(0, 5, CountMode.CACHED)).getTotalElements();
+
+            long exactAll = memberRepository.findPageAll(CountPageRequest.of(0, 5, CountMode.EXACT)).getTotalElements();
+            memberRepository.findPageAll(CountPageRequest.of(0, 5, CountMode.ESTIMATE));
+            long cachedAll = memberRepository.findPageAll(CountPageRequest.of(0, 5, CountMode.CACHED)).getTotalElements();
+
+            // Then
+            Assertions.assertThat(exact).isEqualTo(12);
+            Assertions.assertThat(concurrent.getTotalElements()).isEqualTo(exact);
+            Assertions.assertThat(concurrent.getContent()).hasSize(5);
+            Assertions.assertThat(shortPage.getContent()).hasSize(12);               // 짧은 페이지 : count 결과 없이 계산
+            Assertions.assertThat(shortPage.getTotalElements()).isEqualTo(exact);
+            Assertions.assertThat(cached).isEqualTo(exact);
+            Assertions.assertThat(cachedAfterInsert).isEqualTo(exact + 1);          // 커밋 후 무효화
+            Assertions.assertThat(cachedAll).isEqualTo(exactAll);                    // 추정치가 CACHED 로 새지 않는다.
+        } finally {
+            memberRepository.deleteAll(members);
+            if (added != null) {
+                memberRepository.delete(added);
+            }
+        }
+    }
+
+    @Test   // CONCURRENT count 가 커넥션 풀보다 많은 동시 요청에서도 막히지 않는다. (허용 개수를 넘으면 호출 트랜잭션에서 순차 count)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testConcurrentCountUnderLoad() throws Exception {
+        // Given : 커넥션을 잡고 있는 readOnly 트랜잭션(findPageByUsername) 30개 > Hikari 기본 풀 크기 10
+        String username = "CountLoad_" + System.nanoTime();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            members.add(new Member(username, i, null));
+        }
+        memberRepository.saveAllBatched(members, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(30);
+        try {
+            // When
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<Page<Member>>> pages = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                pages.add(executor.submit(() -> {
+                    ready.await();
+                    return memberRepository.findPageByUsername(username, CountPageRequest.of(0, 5, CountMode.CONCURRENT));
+                }));
+            }
+            ready.countDown();
+
+            // Then : 커넥션 대기 시간(Hikari 기본 30초)보다 훨씬 먼저 모두 끝난다.
+            for (Future<Page<Member>> page : pages) {
+                Page<Member> result = page.get(20, TimeUnit.SECONDS);
+                Assertions.assertThat(result.getContent()).hasSize(5);
+                Assertions.assertThat(result.getTotalElements()).isEqualTo(12);
+            }
+        } finally {
+            executor.shutdownNow();
+            memberRepository.deleteAll(members);
+        }
+    }
+
+    @Test   // CountCache : 추정치 키는 정확한 건수 키와 분리, TTL 이 지나면 다시 계산, 무효화하면 다시 계산
+    public void testCountCache() {
+        CountKey key = CountKey.unfiltered("CountCacheTest", "select count(x) from X x", "x");
+        countCache.get(key.estimated(), () -> 999L);
+        Assertions.assertThat(countCache.get(key, () -> 12L)).isEqualTo(12L);
+        Assertions.assertThat(countCache.get(key, () -> 13L)).isEqualTo(12L);   // 캐시 사용
+
+        countCache.invalidate("CountCacheTest");
+        Assertions.assertThat(countCache.get(key, () -> 14L)).isEqualTo(14L);
+
+        CountCache noTtl = new CountCache(0, 100);
+        noTtl.get(key, () -> 1L);
+        Assertions.assertThat(noTtl.get(key, () -> 2L)).isEqualTo(2L);           // TTL 0 : 매번 다시 계산
+    }
+}